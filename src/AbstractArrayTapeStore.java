@@ -0,0 +1,212 @@
+/*
+ * An AbstractArrayTapeStore is the common part of TapeStores which keep
+ * their cells in two arrays, one for the non-negative positions and one
+ * for the negative positions (index i of the negative array holds
+ * position -1-i.)  Each array doubles in size when a write lands just
+ * past its end, so reading or writing near the origin is just an array
+ * access.  Subclasses decide what kind of array holds the cells.
+ *
+ * A write far beyond the end of an array (more than twice its length,
+ * give or take) does not grow it, but goes into a HashTapeStore instead,
+ * so a few far-flung cells do not cost a huge array.  If an array later
+ * grows to cover such cells, they are moved into it.  Positions which
+ * do not fit in a long are always kept there.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public abstract class AbstractArrayTapeStore<E> implements TapeStore<E> {
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final int initialCapacity;
+    private int count = 0; // occupied cells in the arrays
+    protected HashTapeStore<E> sparse = null;
+
+    protected AbstractArrayTapeStore(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    /*
+     * The number of cells the given array can hold.
+     */
+    protected abstract int capacity(boolean negative);
+
+    /*
+     * Replace the given array by one of the given (larger) capacity,
+     * holding the same cells.
+     */
+    protected abstract void resize(boolean negative, int capacity);
+
+    /*
+     * Return the cell at index i of the given array, or null if it is
+     * empty.
+     */
+    protected abstract E getCell(boolean negative, int i);
+
+    /*
+     * Store e (which has been normalized) at index i of the given array,
+     * returning the old cell, or null if it was empty.
+     */
+    protected abstract E setCell(boolean negative, int i, E e);
+
+    /*
+     * Return the value that should actually be stored for e; subclasses
+     * which cannot tell some value from empty map it to null here.
+     */
+    protected E normalize(E e) {
+        return e;
+    }
+
+    public abstract AbstractArrayTapeStore<E> clone();
+
+    /*
+     * Copy everything but the arrays to the given store; for clone().
+     */
+    protected void copyTo(AbstractArrayTapeStore<E> c) {
+        c.count = count;
+        if (sparse != null) {
+            c.sparse = sparse.clone();
+        }
+    }
+
+    /*
+     * For subclasses which write cells into the arrays directly.
+     */
+    protected final void adjustCount(int delta) {
+        count += delta;
+    }
+
+    public E get(long p) {
+        if (p >= 0) {
+            if (p < capacity(false)) {
+                return getCell(false, (int)p);
+            }
+        } else {
+            long i = -1 - p;
+            if (i < capacity(true)) {
+                return getCell(true, (int)i);
+            }
+        }
+        return sparse == null ? null : sparse.get(p);
+    }
+
+    public E get(IntegerElement p) {
+        if (p.isLong()) {
+            return get(p.longValue());
+        }
+        return sparse == null ? null : sparse.get(p);
+    }
+
+    public E put(long p, E e) {
+        e = normalize(e);
+        boolean negative = p < 0;
+        long i = negative ? -1 - p : p;
+        if (i >= capacity(negative) && (e == null || !grow(negative, i))) {
+            return putSparse(IntegerElement.valueOf(p), e);
+        }
+        E old = setCell(negative, (int)i, e);
+        if (old == null && e != null) {
+            count++;
+        } else if (old != null && e == null) {
+            count--;
+        }
+        return old;
+    }
+
+    public E put(IntegerElement p, E e) {
+        if (p.isLong()) {
+            return put(p.longValue(), e);
+        }
+        return putSparse(p, normalize(e));
+    }
+
+    private E putSparse(IntegerElement p, E e) {
+        if (sparse == null) {
+            if (e == null) {
+                return null;
+            }
+            sparse = new HashTapeStore<E>();
+        }
+        return sparse.put(p, e);
+    }
+
+    /*
+     * Grow the given array to hold index i, if it should grow that far,
+     * and bring in anything from the sparse store that it now covers.
+     */
+    private boolean grow(boolean negative, long i) {
+        int length = capacity(negative);
+        if (i >= MAX_CAPACITY || i >= length * 2L + initialCapacity) {
+            return false;
+        }
+        long n = length;
+        while (n <= i) {
+            n *= 2;
+        }
+        int capacity = (int)Math.min(n, MAX_CAPACITY);
+        resize(negative, capacity);
+        if (sparse != null) {
+            List<IntegerElement> moved = new ArrayList<IntegerElement>();
+            for (Map.Entry<IntegerElement, E> entry : sparse) {
+                IntegerElement k = entry.getKey();
+                if (!k.isLong() || (k.longValue() < 0) != negative) continue;
+                long j = negative ? -1 - k.longValue() : k.longValue();
+                if (j >= length && j < capacity) {
+                    setCell(negative, (int)j, entry.getValue());
+                    moved.add(k);
+                }
+            }
+            for (IntegerElement k : moved) {
+                sparse.put(k, null);
+            }
+            count += moved.size();
+        }
+        return true;
+    }
+
+    public int size() {
+        return count + (sparse == null ? 0 : sparse.size());
+    }
+
+    /*
+     * Subclasses should also replace their arrays with new ones of the
+     * initial capacity.
+     */
+    public void clear() {
+        count = 0;
+        sparse = null;
+    }
+
+    /*
+     * The entries are gathered up front, in order of position (apart
+     * from any in the sparse store, which come last.)
+     */
+    public Iterator<Map.Entry<IntegerElement, E>> iterator() {
+        List<Map.Entry<IntegerElement, E>> entries = new ArrayList<Map.Entry<IntegerElement, E>>(size());
+        for (int i = capacity(true) - 1; i >= 0; i--) {
+            E e = getCell(true, i);
+            if (e != null) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<IntegerElement, E>(IntegerElement.valueOf(-1L - i), e));
+            }
+        }
+        for (int i = 0; i < capacity(false); i++) {
+            E e = getCell(false, i);
+            if (e != null) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<IntegerElement, E>(IntegerElement.valueOf(i), e));
+            }
+        }
+        if (sparse != null) {
+            for (Map.Entry<IntegerElement, E> entry : sparse) {
+                entries.add(entry);
+            }
+        }
+        return entries.iterator();
+    }
+}
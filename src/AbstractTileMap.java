@@ -0,0 +1,265 @@
+/*
+ * An AbstractTileMap is the common part of PlayfieldStores which split
+ * the plane into square tiles of TILE_SIZE x TILE_SIZE cells.  It keeps
+ * the directory of tiles (a PositionMap keyed on tile coordinates), and
+ * subclasses decide how the cells of a tile are stored.
+ *
+ * Tiles are created the first time something is stored in them and
+ * dropped again when they become empty.  The most recently used tile is
+ * remembered, so scanning along a row rarely needs to look a tile up.
+ *
+ * clone() is constant-time: the clone shares the tile directory and all
+ * of the tiles with the original.  Each tile records which map owns it,
+ * and a map copies a tile it does not own the first time it writes to
+ * it (and copies the directory, which has one entry per tile, the first
+ * time it writes at all.)  So after a clone, each side pays only for
+ * what it changes.  Subclasses must call ownTile() before modifying a
+ * tile.
+ *
+ * Positions whose coordinates do not fit in a long are kept in a
+ * separate PositionMap, which is copied outright by clone().
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public abstract class AbstractTileMap<E> implements PlayfieldStore<E> {
+    public static final int TILE_SHIFT = 6;
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+    protected static final int TILE_MASK = TILE_SIZE - 1;
+
+    protected abstract static class Tile {
+        final long tx, ty;
+        final Object owner;
+        int count = 0; // number of occupied cells
+
+        protected Tile(long tx, long ty, Object owner) {
+            this.tx = tx;
+            this.ty = ty;
+            this.owner = owner;
+        }
+
+        protected abstract Tile copy(Object owner);
+    }
+
+    private PositionMap<Tile> tiles = new PositionMap<Tile>();
+    private boolean sharedTiles = false; // true if tiles may be seen by another map
+    private Object owner = new Object(); // tiles marked with this are ours to modify
+    private PositionMap<E> overflow = null;
+    private long size = 0;
+    private Tile lastTile = null;
+
+    /*
+     * Return a new, empty map of the same kind.
+     */
+    protected abstract AbstractTileMap<E> newMap();
+
+    protected abstract Tile newTile(long tx, long ty, Object owner);
+
+    /*
+     * Return the value that should actually be stored for e; subclasses
+     * which cannot tell some value from empty map it to null here.
+     */
+    protected E normalize(E e) {
+        return e;
+    }
+
+    public AbstractTileMap<E> clone() {
+        AbstractTileMap<E> c = newMap();
+        c.tiles = tiles;
+        c.sharedTiles = true;
+        if (overflow != null) {
+            c.overflow = overflow.clone();
+        }
+        c.size = size;
+        // every tile we have is now shared, so we no longer own any of them
+        sharedTiles = true;
+        owner = new Object();
+        return c;
+    }
+
+    protected final Tile findTile(long tx, long ty) {
+        Tile t = lastTile;
+        if (t != null && t.tx == tx && t.ty == ty) {
+            return t;
+        }
+        t = tiles.get(tx, ty);
+        if (t != null) {
+            lastTile = t;
+        }
+        return t;
+    }
+
+    private void unshareTiles() {
+        if (sharedTiles) {
+            tiles = tiles.clone();
+            sharedTiles = false;
+        }
+    }
+
+    /*
+     * Create an empty tile at the given tile coordinates, which must not
+     * already have one.
+     */
+    protected final Tile createTile(long tx, long ty) {
+        unshareTiles();
+        Tile t = newTile(tx, ty, owner);
+        tiles.put(tx, ty, t);
+        lastTile = t;
+        return t;
+    }
+
+    /*
+     * Return a version of the given tile that this map may modify,
+     * copying it (and the directory) if need be.
+     */
+    protected final Tile ownTile(Tile t) {
+        if (t.owner == owner) {
+            return t;
+        }
+        unshareTiles();
+        t = t.copy(owner);
+        tiles.put(t.tx, t.ty, t);
+        lastTile = t;
+        return t;
+    }
+
+    /*
+     * Record that a cell of the (owned) tile became occupied (delta = 1)
+     * or empty (delta = -1).  Drops the tile if it is now empty.
+     */
+    protected final void adjustCount(Tile t, int delta) {
+        t.count += delta;
+        size += delta;
+        if (t.count == 0) {
+            tiles.put(t.tx, t.ty, null);
+            lastTile = null;
+        }
+    }
+
+    public int size() {
+        long n = cellCount();
+        return n > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)n;
+    }
+
+    /*
+     * Like size(), but does not top out at Integer.MAX_VALUE.
+     */
+    public long cellCount() {
+        return size + (overflow == null ? 0 : overflow.size());
+    }
+
+    public void clear() {
+        tiles = new PositionMap<Tile>();
+        sharedTiles = false;
+        overflow = null;
+        size = 0;
+        lastTile = null;
+    }
+
+    public E get(IntegerElement x, IntegerElement y) {
+        if (x.isLong() && y.isLong()) {
+            return get(x.longValue(), y.longValue());
+        }
+        return overflow == null ? null : overflow.get(x, y);
+    }
+
+    public E put(IntegerElement x, IntegerElement y, E e) {
+        if (x.isLong() && y.isLong()) {
+            return put(x.longValue(), y.longValue(), e);
+        }
+        e = normalize(e);
+        if (overflow == null) {
+            if (e == null) {
+                return null;
+            }
+            overflow = new PositionMap<E>();
+        }
+        return overflow.put(x, y, e);
+    }
+
+    /*
+     * Return the tiles which overlap the given (inclusive) area, in
+     * row-major order.
+     */
+    protected final List<Tile> tilesIn(long minX, long minY, long maxX, long maxY) {
+        List<Tile> found = new ArrayList<Tile>();
+        if (minX > maxX || minY > maxY) {
+            return found;
+        }
+        long tx0 = minX >> TILE_SHIFT, ty0 = minY >> TILE_SHIFT;
+        long tx1 = maxX >> TILE_SHIFT, ty1 = maxY >> TILE_SHIFT;
+        if (PositionMap.areaAtMost(tx0, ty0, tx1, ty1, tiles.size())) {
+            for (long ty = ty0; ty <= ty1; ty++) {
+                for (long tx = tx0; tx <= tx1; tx++) {
+                    Tile t = tiles.get(tx, ty);
+                    if (t != null) {
+                        found.add(t);
+                    }
+                }
+            }
+            return found;
+        }
+        for (Map.Entry<Position, Tile> entry : tiles) {
+            Tile t = entry.getValue();
+            if (t.tx >= tx0 && t.tx <= tx1 && t.ty >= ty0 && t.ty <= ty1) {
+                found.add(t);
+            }
+        }
+        Collections.sort(found, new Comparator<Tile>() {
+            public int compare(Tile a, Tile b) {
+                int c = Long.compare(a.ty, b.ty);
+                return c != 0 ? c : Long.compare(a.tx, b.tx);
+            }
+        });
+        return found;
+    }
+
+    /*
+     * Visit the occupied cells of one row of tiles (all with the same ty,
+     * in order) which fall in the given area, in row-major order.
+     */
+    protected abstract void visitTileRow(List<Tile> row, long minX, long minY, long maxX, long maxY, CellVisitor<E> v);
+
+    public void forEachCell(long minX, long minY, long maxX, long maxY, CellVisitor<E> v) {
+        List<Tile> found = tilesIn(minX, minY, maxX, maxY);
+        int start = 0;
+        while (start < found.size()) {
+            int end = start;
+            long ty = found.get(start).ty;
+            while (end < found.size() && found.get(end).ty == ty) {
+                end++;
+            }
+            visitTileRow(found.subList(start, end), minX, minY, maxX, maxY, v);
+            start = end;
+        }
+    }
+
+    /*
+     * Iterates in row-major order, then over any positions that do not
+     * fit in a long.  The entries are gathered up front, so the map may
+     * be modified during iteration without upsetting it.
+     */
+    public Iterator<Map.Entry<Position, E>> iterator() {
+        final List<Map.Entry<Position, E>> entries = new ArrayList<Map.Entry<Position, E>>();
+        forEachCell(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, new CellVisitor<E>() {
+            public void visit(long x, long y, E e) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<Position, E>(new Position(x, y), e));
+            }
+        });
+        if (overflow != null) {
+            for (Map.Entry<Position, E> entry : overflow) {
+                entries.add(entry);
+            }
+        }
+        return Collections.unmodifiableList(entries).iterator();
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * An ArrayTape is a BasicTape whose backing store is an ArrayTapeStore
+ * rather than a HashTapeStore.  This suits tapes whose cells are used
+ * more or less contiguously around the origin, as the tapes of most
+ * Brainfuck-like languages are.  It can be extended in exactly the same
+ * way as BasicTape.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public class ArrayTape<E extends Element> extends BasicTape<E> {
+    public ArrayTape(E def) {
+        super(def);
+    }
+
+    public ArrayTape<E> clone() {
+        ArrayTape<E> c = new ArrayTape<E>(def);
+        c.copyBackingStoreFrom(this);
+        c.head = this.head.clone();
+        c.head.setTape(c);
+        return c;
+    }
+
+    protected TapeStore<E> createStore() {
+        return new ArrayTapeStore<E>();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * An ArrayTapeStore is an AbstractArrayTapeStore whose arrays hold
+ * element references, so it can hold any kind of element.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.Arrays;
+
+public class ArrayTapeStore<E> extends AbstractArrayTapeStore<E> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] pos = new Object[INITIAL_CAPACITY];
+    private Object[] neg = new Object[INITIAL_CAPACITY];
+
+    public ArrayTapeStore() {
+        super(INITIAL_CAPACITY);
+    }
+
+    public ArrayTapeStore<E> clone() {
+        ArrayTapeStore<E> c = new ArrayTapeStore<E>();
+        copyTo(c);
+        c.pos = pos.clone();
+        c.neg = neg.clone();
+        return c;
+    }
+
+    protected int capacity(boolean negative) {
+        return negative ? neg.length : pos.length;
+    }
+
+    protected void resize(boolean negative, int capacity) {
+        if (negative) {
+            neg = Arrays.copyOf(neg, capacity);
+        } else {
+            pos = Arrays.copyOf(pos, capacity);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected E getCell(boolean negative, int i) {
+        return (E)(negative ? neg : pos)[i];
+    }
+
+    protected E setCell(boolean negative, int i, E e) {
+        E old = getCell(negative, i);
+        (negative ? neg : pos)[i] = e;
+        return old;
+    }
+
+    public void clear() {
+        super.clear();
+        pos = new Object[INITIAL_CAPACITY];
+        neg = new Object[INITIAL_CAPACITY];
+    }
+}
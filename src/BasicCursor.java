@@ -47,6 +47,14 @@ public class BasicCursor<E extends Element> implements Cursor<E> {
         return p.get(x, y);
     }
 
+    public long getXLong() {
+        return x.longValue();
+    }
+
+    public long getYLong() {
+        return y.longValue();
+    }
+
     public IntegerElement getX() {
         return x;
     }
@@ -59,16 +67,16 @@ public class BasicCursor<E extends Element> implements Cursor<E> {
         this.x = x;
     }
 
-    public void setX(int x) {
-        this.x = new IntegerElement(x);
+    public void setX(long x) {
+        this.x = IntegerElement.valueOf(x);
     }
 
     public void setY(IntegerElement y) {
         this.y = y;
     }
 
-    public void setY(int y) {
-        this.y = new IntegerElement(y);
+    public void setY(long y) {
+        this.y = IntegerElement.valueOf(y);
     }
 
     public void setDeltaX(IntegerElement dx) {
@@ -76,7 +84,7 @@ public class BasicCursor<E extends Element> implements Cursor<E> {
     }
 
     public void setDeltaX(int dx) {
-        this.dx = new IntegerElement(dx);
+        this.dx = IntegerElement.valueOf(dx);
     }
 
     public void setDeltaY(IntegerElement dy) {
@@ -84,7 +92,7 @@ public class BasicCursor<E extends Element> implements Cursor<E> {
     }
 
     public void setDeltaY(int dy) {
-        this.dy = new IntegerElement(dy);
+        this.dy = IntegerElement.valueOf(dy);
     }
 
     public void setDelta(IntegerElement dx, IntegerElement dy) {
@@ -106,12 +114,12 @@ public class BasicCursor<E extends Element> implements Cursor<E> {
     }
 
     public void move(IntegerElement dx, IntegerElement dy) {
-        x = x.add(new IntegerElement(dx));
-        y = y.add(new IntegerElement(dy));
+        x = x.add(dx);
+        y = y.add(dy);
     }
 
     public void move(int dx, int dy) {
-        move(new IntegerElement(dx), new IntegerElement(dy));
+        move(IntegerElement.valueOf(dx), IntegerElement.valueOf(dy));
     }
 
     public void advance() {
@@ -123,7 +131,7 @@ public class BasicCursor<E extends Element> implements Cursor<E> {
     }
 
     public void advance(int factor) {
-        advance(new IntegerElement(factor));
+        advance(IntegerElement.valueOf(factor));
     }
 
     public void reflect() {
@@ -160,12 +168,21 @@ public class BasicCursor<E extends Element> implements Cursor<E> {
         nuIndex %= 8;
         int nuDx = table[nuIndex][0];
         int nuDy = table[nuIndex][1];
-        dx = new IntegerElement(nuDx);
-        dy = new IntegerElement(nuDy);
+        dx = IntegerElement.valueOf(nuDx);
+        dy = IntegerElement.valueOf(nuDy);
     }
 
     public boolean isHeaded(int dx, int dy) {
         return getDeltaX().intValue() == dx && getDeltaY().intValue() == dy;
     }
 
+    /*
+     * Includes the direction as well as the position.  This is cheap
+     * enough to work out when asked for, so it is not kept up to date.
+     */
+    public long fingerprint() {
+        long h = Zobrist.combine(Zobrist.of(x), Zobrist.of(y));
+        return Zobrist.combine(Zobrist.combine(h, Zobrist.of(dx)), Zobrist.of(dy));
+    }
+
 }
@@ -46,8 +46,12 @@ public class BasicHead<E extends Element> implements Head<E> {
         this.pos = pos;
     }
 
-    public void setPos(int pos) {
-        this.pos = new IntegerElement(pos);
+    public long getPosLong() {
+        return pos.longValue();
+    }
+
+    public void setPos(long pos) {
+        this.pos = IntegerElement.valueOf(pos);
     }
 
     public void move(IntegerElement delta) {
@@ -55,14 +59,14 @@ public class BasicHead<E extends Element> implements Head<E> {
     }
 
     public void move(int delta) {
-        move(new IntegerElement(delta));
+        move(IntegerElement.valueOf(delta));
     }
 
     public boolean isAt(IntegerElement pos) {
         return getPos().compareTo(pos) == 0;
     }
 
-    public boolean isAt(int pos) {
-        return isAt(new IntegerElement(pos));
+    public boolean isAt(long pos) {
+        return getPos().compareTo(pos) == 0;
     }
 }
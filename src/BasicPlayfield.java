@@ -1,98 +1,521 @@
 /*
  * A BasicPlayfield is yoob's stock implementation of a playfield.
+ *
+ * Only cells which hold something other than the default element are
+ * actually stored; setting a cell to the default erases it.  The number
+ * of stored cells in each row and column is tracked, so that the bounds
+ * shrink again when content at the edges is erased.  The bounds always
+ * include the origin's row and column (or are empty, at 0..-1.)
+ *
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
 
-import java.util.Map;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 public class BasicPlayfield<E extends Element> implements Playfield<E> {
-    protected HashMap<Position, E> store;
-    private IntegerElement minX, minY, maxX, maxY;
+    protected PlayfieldStore<E> store;
+    // number of stored cells in each column and row that has any; null
+    // if they have not been counted yet (see countLines())
+    private LineCounts colCounts, rowCounts;
+    private boolean countsShared; // true if a clone may also see the counts
+    // bounds of the stored cells; only meaningful if there are any
+    private IntegerElement lowX, lowY, highX, highY;
     private E def;
+    private ChangeJournal journal = null;
+    // XOR of the Zobrist keys of the stored cells
+    private long hash;
+    // for each indexed element, the positions which hold it
+    private HashMap<E, PositionMap<E>> indexes = null;
+    private boolean indexesShared; // true if a clone may also see the indexes
 
     public BasicPlayfield(E def) {
         this.def = def;
         clear();
     }
 
+    /*
+     * Create a playfield which uses the given store, and whatever is
+     * already in it.  This is how a playfield is reopened over a
+     * persistent store such as a MappedTileMap.  A MappedTileMap knows
+     * the bounds and hash of the cells in its file, so those cells are
+     * not read here, and the rows and columns are only counted if a cell
+     * on the edge of the bounds is erased.
+     */
+    public BasicPlayfield(E def, PlayfieldStore<E> store) {
+        this.def = def;
+        this.store = store;
+        colCounts = new LineCounts();
+        rowCounts = new LineCounts();
+        Iterable<Map.Entry<Position, E>> cells = store;
+        if (store instanceof MappedTileMap) {
+            MappedTileMap<E> map = (MappedTileMap<E>)store;
+            long[] bounds = map.findBounds();
+            if (bounds != null) {
+                colCounts = rowCounts = null;
+                lowX = IntegerElement.valueOf(bounds[0]);
+                lowY = IntegerElement.valueOf(bounds[1]);
+                highX = IntegerElement.valueOf(bounds[2]);
+                highY = IntegerElement.valueOf(bounds[3]);
+                hash = map.getHash();
+            }
+            cells = map.overflowCells();
+        }
+        for (Map.Entry<Position, E> entry : cells) {
+            occupy(entry.getKey().getX(), entry.getKey().getY());
+            hash ^= Zobrist.cell(entry.getKey().getX(), entry.getKey().getY(), entry.getValue());
+        }
+    }
+
     public BasicPlayfield<E> clone() {
         BasicPlayfield<E> c = new BasicPlayfield<E>(def);
         c.copyBackingStoreFrom(this);
         return c;
     }
 
+    /*
+     * Attach a ChangeJournal, which will be told about every cell that
+     * changes from now on, or detach it by passing null.  Clones do not
+     * share the journal.
+     */
+    public void setJournal(ChangeJournal journal) {
+        this.journal = journal;
+    }
+
+    public ChangeJournal getJournal() {
+        return journal;
+    }
+
+    /*
+     * Takes constant time (apart from the cursors), as the hash of the
+     * cells is updated by set().
+     */
+    public long fingerprint() {
+        long f = hash;
+        for (int i = 0; i < numCursors(); i++) {
+            f = Zobrist.combine(f, getCursor(i).fingerprint());
+        }
+        return f;
+    }
+
     // provided to make implementing clone() less burdensome.
     protected void copyBackingStoreFrom(BasicPlayfield<E> other) {
-        store = new HashMap<Position, E>((Map<Position, E>)other.store);
-        minX = other.getMinX();
-        minY = other.getMinY();
-        maxX = other.getMaxX();
-        maxY = other.getMaxY();
+        store = other.store.clone();
+        colCounts = other.colCounts;
+        rowCounts = other.rowCounts;
+        countsShared = true;
+        other.countsShared = true;
+        lowX = other.lowX;
+        lowY = other.lowY;
+        highX = other.highX;
+        highY = other.highY;
+        hash = other.hash;
+        indexes = other.indexes;
+        if (indexes != null) {
+            indexesShared = true;
+            other.indexesShared = true;
+        }
     }
 
     public void clear() {
-        store = new HashMap<Position, E>();
-        minX = IntegerElement.ZERO;
-        minY = IntegerElement.ZERO;
-        maxX = IntegerElement.ONE.negate();
-        maxY = IntegerElement.ONE.negate();
+        clearBackingStore();
+    }
+
+    /*
+     * Subclasses may override this to use a different kind of store.
+     * Note that it is called from the constructor.  Once there is a
+     * store, clear() empties it rather than making a new one.
+     */
+    protected PlayfieldStore<E> createStore() {
+        return new PositionMap<E>();
+    }
+
+    private void clearBackingStore() {
+        if (store == null) {
+            store = createStore();
+        } else {
+            store.clear();
+        }
+        colCounts = new LineCounts();
+        rowCounts = new LineCounts();
+        countsShared = false;
+        hash = 0;
+        if (indexes != null && indexesShared) {
+            HashMap<E, PositionMap<E>> empty = new HashMap<E, PositionMap<E>>();
+            for (E e : indexes.keySet()) {
+                empty.put(e, new PositionMap<E>());
+            }
+            indexes = empty;
+            indexesShared = false;
+        } else if (indexes != null) {
+            for (PositionMap<E> index : indexes.values()) {
+                index.clear();
+            }
+        }
+        if (journal != null) {
+            journal.recordAll();
+        }
     }
 
     public void set(IntegerElement x, IntegerElement y, E e) {
-        Position pos = new Position(x, y);
-        store.put(pos, e);
-        //System.out.printf("put %s at (%s,%s) --> %s\n", e.getName(), x, y, e2.getName());
-        //System.out.printf("set @ (%s,%s)\n  lower bounds were (%s,%s)\n", x, y, min_x, min_y);
-        if (x.compareTo(minX) <= 0) {
-            minX = x;
+        if (x.isLong() && y.isLong()) {
+            set(x.longValue(), y.longValue(), e);
+            return;
         }
-        if (x.compareTo(maxX) >= 0) {
-            maxX = x;
+        E old;
+        if (e == null || e.equals(def)) {
+            e = null;
+            old = store.put(x, y, null);
+            if (old != null) {
+                vacate(x, y);
+            }
+        } else {
+            old = store.put(x, y, e);
+            if (old == null) {
+                occupy(x, y);
+            }
         }
-        if (y.compareTo(minY) <= 0) {
-            minY = y;
+        if (old != e) {
+            if (old != null) {
+                hash ^= Zobrist.cell(x, y, old);
+            }
+            if (e != null) {
+                hash ^= Zobrist.cell(x, y, e);
+            }
+            if (indexes != null) {
+                reindex(x, y, old, e);
+            }
+            if (journal != null) {
+                journal.record(x, y);
+            }
         }
-        if (y.compareTo(maxY) >= 0) {
-            maxY = y;
+    }
+
+    /*
+     * Cells whose coordinates fit in a long are set here, without making
+     * any IntegerElements.
+     */
+    public void set(long x, long y, E e) {
+        E old;
+        if (e == null || e.equals(def)) {
+            e = null;
+            old = store.put(x, y, null);
+            if (old != null) {
+                vacate(x, y);
+            }
+        } else {
+            old = store.put(x, y, e);
+            if (old == null) {
+                occupy(x, y);
+            }
+        }
+        if (old != e) {
+            if (old != null) {
+                hash ^= Zobrist.cell(x, y, old);
+            }
+            if (e != null) {
+                hash ^= Zobrist.cell(x, y, e);
+            }
+            if (indexes != null) {
+                reindex(x, y, old, e);
+            }
+            if (journal != null) {
+                journal.record(x, y);
+            }
         }
-        //System.out.printf("  new lower bounds are (%s,%s)\n", min_x, min_y);
     }
 
-    public void set(int x, int y, E e) {
-        set(new IntegerElement(x), new IntegerElement(y), e);
+    private void reindex(IntegerElement x, IntegerElement y, E old, E e) {
+        PositionMap<E> index;
+        if (indexesShared && (indexes.containsKey(old) || indexes.containsKey(e))) {
+            unshareIndexes();
+        }
+        if (old != null && (index = indexes.get(old)) != null) {
+            index.remove(x, y);
+        }
+        if (e != null && (index = indexes.get(e)) != null) {
+            index.put(x, y, e);
+        }
+    }
+
+    private void reindex(long x, long y, E old, E e) {
+        PositionMap<E> index;
+        if (indexesShared && (indexes.containsKey(old) || indexes.containsKey(e))) {
+            unshareIndexes();
+        }
+        if (old != null && (index = indexes.get(old)) != null) {
+            index.remove(x, y);
+        }
+        if (e != null && (index = indexes.get(e)) != null) {
+            index.put(x, y, e);
+        }
+    }
+
+    /*
+     * Start keeping an index of the positions which hold the given
+     * element, so that forEachIndexed() can visit them without searching
+     * the playfield.  Indexes are kept up to date by set(), and shared
+     * by copyBackingStoreFrom() until either side changes them.
+     * Elements are told apart with equals() and hashCode().
+     */
+    public void addIndex(E e) {
+        if (indexes == null) {
+            indexes = new HashMap<E, PositionMap<E>>();
+        }
+        if (indexes.containsKey(e)) {
+            return;
+        }
+        unshareIndexes();
+        PositionMap<E> index = new PositionMap<E>();
+        for (Map.Entry<Position, E> entry : store) {
+            if (entry.getValue().equals(e)) {
+                index.put(entry.getKey().getX(), entry.getKey().getY(), entry.getValue());
+            }
+        }
+        indexes.put(e, index);
+    }
+
+    public boolean isIndexed(E e) {
+        return indexes != null && indexes.containsKey(e);
+    }
+
+    /*
+     * Visit the positions holding the given element, in row-major order.
+     * If the element is not indexed, the whole playfield is searched.
+     * As with forEachCell(), the visitor must not modify the playfield.
+     */
+    public void forEachIndexed(final E e, final CellVisitor<E> v) {
+        if (isIndexed(e)) {
+            indexes.get(e).forEachCell(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, v);
+            return;
+        }
+        forEachCell(new CellVisitor<E>() {
+            public void visit(long x, long y, E f) {
+                if (f.equals(e)) {
+                    v.visit(x, y, f);
+                }
+            }
+        });
+    }
+
+    /*
+     * Visit the positions holding any of the given elements, in row-major
+     * order.
+     */
+    public void forEachIndexed(Collection<? extends E> es, CellVisitor<E> v) {
+        final PositionMap<E> merged = new PositionMap<E>();
+        for (E e : es) {
+            if (isIndexed(e)) {
+                for (Map.Entry<Position, E> entry : indexes.get(e)) {
+                    merged.put(entry.getKey().getX(), entry.getKey().getY(), entry.getValue());
+                }
+            } else {
+                forEachIndexed(e, new CellVisitor<E>() {
+                    public void visit(long x, long y, E f) {
+                        merged.put(x, y, f);
+                    }
+                });
+            }
+        }
+        merged.forEachCell(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, v);
+    }
+
+    private void unshareIndexes() {
+        if (indexesShared) {
+            HashMap<E, PositionMap<E>> copy = new HashMap<E, PositionMap<E>>();
+            for (Map.Entry<E, PositionMap<E>> entry : indexes.entrySet()) {
+                copy.put(entry.getKey(), entry.getValue().clone());
+            }
+            indexes = copy;
+            indexesShared = false;
+        }
+    }
+
+    private void unshareCounts() {
+        if (countsShared && colCounts != null) {
+            colCounts = colCounts.clone();
+            rowCounts = rowCounts.clone();
+            countsShared = false;
+        }
+    }
+
+    /*
+     * Count the rows and columns of the cells in the store, and find the
+     * bounds again from them.
+     */
+    private void countLines() {
+        colCounts = new LineCounts();
+        rowCounts = new LineCounts();
+        countsShared = false;
+        for (Map.Entry<Position, E> entry : store) {
+            occupy(entry.getKey().getX(), entry.getKey().getY());
+        }
+    }
+
+    // true if there are no stored cells; if the lines have not been
+    // counted yet, there are some on the edges of the bounds
+    private boolean hasNoCells() {
+        return colCounts != null && colCounts.isEmpty();
+    }
+
+    private void occupy(IntegerElement x, IntegerElement y) {
+        unshareCounts();
+        if (colCounts == null) {
+            if (x.compareTo(lowX) < 0) lowX = x;
+            if (x.compareTo(highX) > 0) highX = x;
+            if (y.compareTo(lowY) < 0) lowY = y;
+            if (y.compareTo(highY) > 0) highY = y;
+            return;
+        }
+        if (colCounts.isEmpty()) {
+            lowX = highX = x;
+            lowY = highY = y;
+        } else {
+            if (x.compareTo(lowX) < 0) lowX = x;
+            if (x.compareTo(highX) > 0) highX = x;
+            if (y.compareTo(lowY) < 0) lowY = y;
+            if (y.compareTo(highY) > 0) highY = y;
+        }
+        colCounts.increment(x);
+        rowCounts.increment(y);
+    }
+
+    // the bounds are only boxed when they change
+    private void occupy(long x, long y) {
+        unshareCounts();
+        if (colCounts == null) {
+            if (lowX.compareTo(x) > 0) lowX = IntegerElement.valueOf(x);
+            if (highX.compareTo(x) < 0) highX = IntegerElement.valueOf(x);
+            if (lowY.compareTo(y) > 0) lowY = IntegerElement.valueOf(y);
+            if (highY.compareTo(y) < 0) highY = IntegerElement.valueOf(y);
+            return;
+        }
+        if (colCounts.isEmpty()) {
+            lowX = highX = IntegerElement.valueOf(x);
+            lowY = highY = IntegerElement.valueOf(y);
+        } else {
+            if (lowX.compareTo(x) > 0) lowX = IntegerElement.valueOf(x);
+            if (highX.compareTo(x) < 0) highX = IntegerElement.valueOf(x);
+            if (lowY.compareTo(y) > 0) lowY = IntegerElement.valueOf(y);
+            if (highY.compareTo(y) < 0) highY = IntegerElement.valueOf(y);
+        }
+        colCounts.increment(x);
+        rowCounts.increment(y);
+    }
+
+    // the cell has already been taken out of the store
+    private void vacate(IntegerElement x, IntegerElement y) {
+        unshareCounts();
+        if (colCounts == null) {
+            if (x.equals(lowX) || x.equals(highX) || y.equals(lowY) || y.equals(highY)) {
+                countLines();
+            }
+            return;
+        }
+        if (colCounts.decrement(x) && !colCounts.isEmpty()) {
+            if (x.equals(lowX)) {
+                lowX = colCounts.nearest(lowX, highX);
+            } else if (x.equals(highX)) {
+                highX = colCounts.nearest(highX, lowX);
+            }
+        }
+        if (rowCounts.decrement(y) && !rowCounts.isEmpty()) {
+            if (y.equals(lowY)) {
+                lowY = rowCounts.nearest(lowY, highY);
+            } else if (y.equals(highY)) {
+                highY = rowCounts.nearest(highY, lowY);
+            }
+        }
+    }
+
+    private void vacate(long x, long y) {
+        unshareCounts();
+        if (colCounts == null) {
+            if (lowX.compareTo(x) == 0 || highX.compareTo(x) == 0 || lowY.compareTo(y) == 0 || highY.compareTo(y) == 0) {
+                countLines();
+            }
+            return;
+        }
+        if (colCounts.decrement(x) && !colCounts.isEmpty()) {
+            if (lowX.compareTo(x) == 0) {
+                lowX = colCounts.nearest(lowX, highX);
+            } else if (highX.compareTo(x) == 0) {
+                highX = colCounts.nearest(highX, lowX);
+            }
+        }
+        if (rowCounts.decrement(y) && !rowCounts.isEmpty()) {
+            if (lowY.compareTo(y) == 0) {
+                lowY = rowCounts.nearest(lowY, highY);
+            } else if (highY.compareTo(y) == 0) {
+                highY = rowCounts.nearest(highY, lowY);
+            }
+        }
     }
 
     public E get(IntegerElement x, IntegerElement y) {
-        E result = store.get(new Position(x, y));
+        E result = store.get(x, y);
         return (result == null) ? def : result;
     }
 
-    public E get(int x, int y) {
-        return get(new IntegerElement(x), new IntegerElement(y));
+    public E get(long x, long y) {
+        E result = store.get(x, y);
+        return (result == null) ? def : result;
     }
 
     public E getDefault() {
         return def;
     }
 
+    private static long clampToLong(IntegerElement i) {
+        if (i.isLong()) {
+            return i.longValue();
+        }
+        return i.signum() < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+
+    public void forEachCell(CellVisitor<E> v) {
+        if (hasNoCells()) {
+            return;
+        }
+        forEachCell(clampToLong(lowX), clampToLong(lowY), clampToLong(highX), clampToLong(highY), v);
+    }
+
+    public void forEachCell(long minX, long minY, long maxX, long maxY, CellVisitor<E> v) {
+        store.forEachCell(minX, minY, maxX, maxY, v);
+    }
+
     public IntegerElement getMinX() {
-        return minX;
+        if (hasNoCells() || lowX.compareTo(0) > 0) {
+            return IntegerElement.ZERO;
+        }
+        return lowX;
     }
 
     public IntegerElement getMaxX() {
-        return maxX;
+        if (hasNoCells() || highX.compareTo(-1) < 0) {
+            return IntegerElement.valueOf(-1);
+        }
+        return highX;
     }
 
     public IntegerElement getMinY() {
-        return minY;
+        if (hasNoCells() || lowY.compareTo(0) > 0) {
+            return IntegerElement.ZERO;
+        }
+        return lowY;
     }
 
     public IntegerElement getMaxY() {
-        return maxY;
+        if (hasNoCells() || highY.compareTo(-1) < 0) {
+            return IntegerElement.valueOf(-1);
+        }
+        return highY;
     }
 
     public int numCursors() {
@@ -128,10 +551,79 @@ public class BasicPlayfield<E extends Element> implements Playfield<E> {
      * XXX this should be in BasicCursor now
      */
     public boolean hasFallenOffEdge(BasicCursor c) {
-        return (c.getX().compareTo(maxX) > 0 && c.getDeltaX().compareTo(IntegerElement.ZERO) > 0) ||
-               (c.getX().compareTo(minX) < 0 && c.getDeltaX().compareTo(IntegerElement.ZERO) < 0) ||
-               (c.getY().compareTo(maxY) > 0 && c.getDeltaY().compareTo(IntegerElement.ZERO) > 0) ||
-               (c.getY().compareTo(minY) < 0 && c.getDeltaY().compareTo(IntegerElement.ZERO) < 0);
+        return (c.getX().compareTo(getMaxX()) > 0 && c.getDeltaX().compareTo(IntegerElement.ZERO) > 0) ||
+               (c.getX().compareTo(getMinX()) < 0 && c.getDeltaX().compareTo(IntegerElement.ZERO) < 0) ||
+               (c.getY().compareTo(getMaxY()) > 0 && c.getDeltaY().compareTo(IntegerElement.ZERO) > 0) ||
+               (c.getY().compareTo(getMinY()) < 0 && c.getDeltaY().compareTo(IntegerElement.ZERO) < 0);
+    }
+
+    // positions of the stored cells in an area, so they can be changed
+    // once forEachCell() is done
+    private class Collector implements CellVisitor<E> {
+        long[] xs = new long[16];
+        long[] ys = new long[16];
+        int n = 0;
+
+        public void visit(long x, long y, E e) {
+            if (n == xs.length) {
+                xs = Arrays.copyOf(xs, n * 2);
+                ys = Arrays.copyOf(ys, n * 2);
+            }
+            xs[n] = x;
+            ys[n] = y;
+            n++;
+        }
+    }
+
+    /*
+     * Filling with the default element only visits the stored cells.
+     */
+    public void fill(long x, long y, long w, long h, E e) {
+        if (e != null && !e.equals(def)) {
+            Playfield.super.fill(x, y, w, h, e);
+            return;
+        }
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        Collector c = new Collector();
+        forEachCell(x, y, x + w - 1, y + h - 1, c);
+        for (int i = 0; i < c.n; i++) {
+            set(c.xs[i], c.ys[i], def);
+        }
+    }
+
+    /*
+     * When copying from another BasicPlayfield with the same default,
+     * only the cells stored in either region are looked at.
+     */
+    public void blit(Playfield<E> src, long srcX, long srcY, long w, long h, long x, long y, final E skip) {
+        if (src == this || !(src instanceof BasicPlayfield) || !src.getDefault().equals(def)) {
+            Playfield.super.blit(src, srcX, srcY, w, h, x, y, skip);
+            return;
+        }
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        final long dx = x - srcX;
+        final long dy = y - srcY;
+        if (skip == null || !skip.equals(def)) {
+            // clear whatever is not covered by a stored cell in src
+            Collector c = new Collector();
+            forEachCell(x, y, x + w - 1, y + h - 1, c);
+            for (int i = 0; i < c.n; i++) {
+                if (src.get(c.xs[i] - dx, c.ys[i] - dy).equals(def)) {
+                    set(c.xs[i], c.ys[i], def);
+                }
+            }
+        }
+        src.forEachCell(srcX, srcY, srcX + w - 1, srcY + h - 1, new CellVisitor<E>() {
+            public void visit(long cx, long cy, E e) {
+                if (skip == null || !e.equals(skip)) {
+                    set(cx + dx, cy + dy, e);
+                }
+            }
+        });
     }
 
     /*
@@ -139,48 +631,93 @@ public class BasicPlayfield<E extends Element> implements Playfield<E> {
      * from that range.
      */
     public BasicPlayfield<E> extract(IntegerElement x, IntegerElement y, IntegerElement width, IntegerElement height) {
-        BasicPlayfield<E> c = new BasicPlayfield<E>(def);
-        IntegerElement cx, cy, dx, dy;
-        for (cx = x, dx = IntegerElement.ZERO;
-             cx.compareTo(x.add(width)) < 0;
-             cx = cx.succ(), dx = dx.succ()) {
-            for (cy = y, dy = IntegerElement.ZERO;
-                 cy.compareTo(y.add(height)) < 0;
-                 cy = cy.succ(), dy = dy.succ()) {
-                c.set(dx, dy, get(cx, cy));
+        final BasicPlayfield<E> c = new BasicPlayfield<E>(def);
+        final long x0 = x.longValue();
+        final long y0 = y.longValue();
+        forEachCell(x0, y0, x0 + width.longValue() - 1, y0 + height.longValue() - 1, new CellVisitor<E>() {
+            public void visit(long cx, long cy, E e) {
+                c.set(cx - x0, cy - y0, e);
             }
-        }
+        });
         // TODO: clone cursors?
         return c;
     }
 
+    /*
+     * The number of bytes writeTo() will write with the given Codec.
+     */
+    public int encodedSize(Codec<E> codec) {
+        IntegerCodec ic = new IntegerCodec();
+        int size = 4;
+        for (Map.Entry<Position, E> entry : store) {
+            Position p = entry.getKey();
+            size += ic.encodedSize(p.getX()) + ic.encodedSize(p.getY());
+            size += codec.encodedSize(entry.getValue());
+        }
+        return size;
+    }
+
+    /*
+     * Write the contents of this BasicPlayfield to the buffer, in a form
+     * that readFrom() can restore.  Cursors are not included.
+     */
+    public void writeTo(ByteBuffer buf, Codec<E> codec) {
+        IntegerCodec ic = new IntegerCodec();
+        buf.putInt(store.size());
+        for (Map.Entry<Position, E> entry : store) {
+            Position p = entry.getKey();
+            ic.encode(p.getX(), buf);
+            ic.encode(p.getY(), buf);
+            codec.encode(entry.getValue(), buf);
+        }
+    }
+
+    /*
+     * Replace the contents of this BasicPlayfield with those read from
+     * the buffer.  Cursors are left where they are.
+     */
+    public void readFrom(ByteBuffer buf, Codec<E> codec) {
+        IntegerCodec ic = new IntegerCodec();
+        clearBackingStore();
+        int count = buf.getInt();
+        for (int i = 0; i < count; i++) {
+            IntegerElement x = ic.decode(buf);
+            IntegerElement y = ic.decode(buf);
+            set(x, y, codec.decode(buf));
+        }
+    }
+
     public String dump() {
-        IntegerElement min_x = getMinX();
-        IntegerElement min_y = getMinY();
-        IntegerElement max_x = getMaxX();
-        IntegerElement max_y = getMaxY();
-        IntegerElement x = min_x;
-        IntegerElement y = min_y;
-        StringBuffer buf = new StringBuffer();
-        int blanks;
-
-        while (y.compareTo(max_y) <= 0) {
-            x = min_x;
-            blanks = 0;
-            while (x.compareTo(max_x) <= 0) {
-                E e = get(x, y);
-                if (e.equals(def)) {
-                    blanks++;
-                } else {
-                    while (blanks > 0) {
-                        buf.append(dumpElement(def));
-                        blanks--;
-                    }
-                    buf.append(dumpElement(e));
+        final long min_x = getMinX().longValue();
+        final long min_y = getMinY().longValue();
+        final long max_y = getMaxY().longValue();
+        final StringBuffer buf = new StringBuffer();
+        final String blank = dumpElement(def);
+
+        // runs of blanks are only written out when something follows them
+        // on the same line, so only the non-default cells need visiting.
+        class Dumper implements CellVisitor<E> {
+            long x = min_x;
+            long y = min_y;
+
+            public void visit(long cx, long cy, E e) {
+                while (y < cy) {
+                    buf.append("\n");
+                    y++;
+                    x = min_x;
                 }
-                x = x.succ();
+                while (x < cx) {
+                    buf.append(blank);
+                    x++;
+                }
+                buf.append(dumpElement(e));
+                x = cx + 1;
             }
-            y = y.succ();
+        }
+        Dumper d = new Dumper();
+        forEachCell(min_x, min_y, getMaxX().longValue(), max_y, d);
+        // end the last line visited, and any blank lines after it
+        for (long y = d.y; y <= max_y; y++) {
             buf.append("\n");
         }
 
@@ -4,13 +4,13 @@
  * queues are built on tapes.
  * Actually you get a full deque with this.  If you want a
  * queue, only use the enqueue and dequeue methods.
+ * Cells are cleared as they are dequeued, and kept in a RingTapeStore,
+ * so a queue takes space in proportion to its length, however far
+ * along the tape it has travelled.
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class BasicQueue<E extends Element> extends BasicTape<E> {
     protected BasicHead<E> tail;
 
@@ -19,6 +19,10 @@ public class BasicQueue<E extends Element> extends BasicTape<E> {
         tail = new BasicHead<E>(this, IntegerElement.ONE.negate());
     }
 
+    protected TapeStore<E> createStore() {
+        return new RingTapeStore<E>();
+    }
+
     public void enqueue(E e) {
         Head<E> tail = getHead(1);
         tail.move(1);
@@ -37,6 +41,7 @@ public class BasicQueue<E extends Element> extends BasicTape<E> {
         }
         Head<E> head = getHead(0);
         E e = head.read();
+        write(head.getPos(), null);
         head.move(1);
         return e;
     }
@@ -47,6 +52,7 @@ public class BasicQueue<E extends Element> extends BasicTape<E> {
         }
         Head<E> tail = getHead(1);
         E e = tail.read();
+        write(tail.getPos(), null);
         tail.move(-1);
         return e;
     }
@@ -91,9 +97,7 @@ public class BasicQueue<E extends Element> extends BasicTape<E> {
 
     public BasicQueue<E> clone() {
         BasicQueue<E> c = new BasicQueue<E>(def);
-        c.store = new HashMap<IntegerElement, E>((Map<IntegerElement, E>)this.store);
-        c.min = this.min;
-        c.max = this.max;
+        c.copyBackingStoreFrom(this);
         c.head = this.head.clone();
         c.tail= this.tail.clone();
         c.head.setTape(c);
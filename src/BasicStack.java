@@ -2,13 +2,11 @@
  * A BasicStack is yoob's stock implementation of a stack.
  * To ease the display and editing of stacks at debug-time,
  * stacks are built on tapes.
+ * Cells are cleared as they are popped.
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class BasicStack<E extends Element> extends BasicTape<E> {
     public BasicStack(E def) {
         super(def);
@@ -26,7 +24,9 @@ public class BasicStack<E extends Element> extends BasicTape<E> {
             return def;
         }
         h.move(-1);
-        return h.read();
+        E e = h.read();
+        h.write(null);
+        return e;
     }
 
     public boolean isEmpty() {
@@ -39,12 +39,13 @@ public class BasicStack<E extends Element> extends BasicTape<E> {
 
     public BasicStack<E> clone() {
         BasicStack<E> c = new BasicStack<E>(def);
-        c.store = new HashMap<IntegerElement, E>((Map<IntegerElement, E>)this.store);
-        c.min = this.min;
-        c.max = this.max;
+        c.copyBackingStoreFrom(this);
         c.head = this.head.clone();
         c.head.setTape(c);
         return c;
     }
 
+    protected TapeStore<E> createStore() {
+        return new ArrayTapeStore<E>();
+    }
 }
@@ -1,20 +1,26 @@
 /*
- * A BasicTape is yoob's stock implementation of a tape.
+ * A BasicTape is yoob's stock implementation of a tape.  Its cells are
+ * kept in a TapeStore, which is a HashTapeStore unless a subclass says
+ * otherwise by overriding createStore(); see ArrayTape.
+ *
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
 
-import java.util.HashMap;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 public class BasicTape<E extends Element> implements Tape<E> {
-    protected HashMap<IntegerElement, E> store;
+    protected TapeStore<E> store;
     protected IntegerElement min, max;
     protected BasicHead<E> head;
     protected E def;
+    protected ChangeJournal journal = null;
+    // XOR of the Zobrist keys of the non-default cells
+    protected long hash = 0;
 
     public BasicTape(E def) {
-        store = new HashMap<IntegerElement, E>();
+        store = createStore();
         min = IntegerElement.ZERO;
         max = IntegerElement.ONE.negate();
         head = new BasicHead<E>(this, IntegerElement.ZERO);
@@ -23,25 +29,84 @@ public class BasicTape<E extends Element> implements Tape<E> {
 
     public BasicTape<E> clone() {
         BasicTape<E> c = new BasicTape<E>(def);
-        c.store = new HashMap<IntegerElement, E>((Map<IntegerElement, E>)this.store);
-        c.min = this.min;
-        c.max = this.max;
+        c.copyBackingStoreFrom(this);
         c.head = this.head.clone();
         c.head.setTape(c);
         return c;
     }
 
+    /*
+     * Subclasses may override this to use a different kind of store.
+     * Note that it is called from the constructor.
+     */
+    protected TapeStore<E> createStore() {
+        return new HashTapeStore<E>();
+    }
+
+    // provided to make implementing clone() less burdensome.
+    protected void copyBackingStoreFrom(BasicTape<E> other) {
+        store = other.store.clone();
+        min = other.min;
+        max = other.max;
+        hash = other.hash;
+    }
+
+    /*
+     * Attach a ChangeJournal, which will be told about every position
+     * written to from now on (as (pos, 0)), or detach it by passing null.
+     * Clones do not share the journal.
+     */
+    public void setJournal(ChangeJournal journal) {
+        this.journal = journal;
+    }
+
+    public ChangeJournal getJournal() {
+        return journal;
+    }
+
+    /*
+     * Takes constant time (apart from the heads), as the hash of the
+     * cells is updated by write().
+     */
+    public long fingerprint() {
+        long h = hash;
+        for (int i = 0; i < numHeads(); i++) {
+            h = Zobrist.combine(h, getHead(i).fingerprint());
+        }
+        return h;
+    }
+
+    private void rehash(IntegerElement pos, E e) {
+        if (e != null && !e.equals(def)) {
+            hash ^= Zobrist.cell(pos, e);
+        }
+    }
+
+    private void rehash(long pos, E e) {
+        if (e != null && !e.equals(def)) {
+            hash ^= Zobrist.cell(pos, e);
+        }
+    }
+
     public E read(IntegerElement pos) {
         E e = store.get(pos);
         return e == null ? def : e;
     }
 
-    public E read(int pos) {
-        return read(new IntegerElement(pos));
+    public E read(long pos) {
+        E e = store.get(pos);
+        return e == null ? def : e;
     }
 
     public void write(IntegerElement pos, E e) {
-        store.put(pos, e);
+        E old = store.put(pos, e);
+        if (old != e) {
+            rehash(pos, old);
+            rehash(pos, e);
+            if (journal != null) {
+                journal.record(pos, IntegerElement.ZERO);
+            }
+        }
         if (pos.compareTo(min) < 0) {
             min = pos;
         }
@@ -50,8 +115,26 @@ public class BasicTape<E extends Element> implements Tape<E> {
         }
     }
 
-    public void write(int pos, E e) {
-        write(new IntegerElement(pos), e);
+    public void write(long pos, E e) {
+        E old = store.put(pos, e);
+        if (old != e) {
+            rehash(pos, old);
+            rehash(pos, e);
+            if (journal != null) {
+                journal.record(pos, 0);
+            }
+        }
+        extendBounds(pos);
+    }
+
+    // widen min and max, if need be, to take in a position written to.
+    protected void extendBounds(long pos) {
+        if (min.compareTo(pos) > 0) {
+            min = IntegerElement.valueOf(pos);
+        }
+        if (max.compareTo(pos) < 0) {
+            max = IntegerElement.valueOf(pos);
+        }
     }
 
     public IntegerElement getMin() {
@@ -72,6 +155,69 @@ public class BasicTape<E extends Element> implements Tape<E> {
         return null;
     }
 
+    /*
+     * The number of bytes writeTo() will write with the given Codec.
+     */
+    public int encodedSize(Codec<E> codec) {
+        IntegerCodec ic = new IntegerCodec();
+        int size = ic.encodedSize(min) + ic.encodedSize(max) + 4 + 4;
+        for (Map.Entry<IntegerElement, E> entry : store) {
+            size += ic.encodedSize(entry.getKey()) + codec.encodedSize(entry.getValue());
+        }
+        for (int i = 0; i < numHeads(); i++) {
+            size += ic.encodedSize(getHead(i).getPos());
+        }
+        return size;
+    }
+
+    /*
+     * Write the contents of this tape, and the positions of its heads,
+     * to the buffer, in a form that readFrom() can restore.
+     */
+    public void writeTo(ByteBuffer buf, Codec<E> codec) {
+        IntegerCodec ic = new IntegerCodec();
+        ic.encode(min, buf);
+        ic.encode(max, buf);
+        buf.putInt(store.size());
+        for (Map.Entry<IntegerElement, E> entry : store) {
+            ic.encode(entry.getKey(), buf);
+            codec.encode(entry.getValue(), buf);
+        }
+        buf.putInt(numHeads());
+        for (int i = 0; i < numHeads(); i++) {
+            ic.encode(getHead(i).getPos(), buf);
+        }
+    }
+
+    /*
+     * Replace the contents of this tape, and the positions of its heads,
+     * with those read from the buffer.
+     */
+    public void readFrom(ByteBuffer buf, Codec<E> codec) {
+        IntegerCodec ic = new IntegerCodec();
+        store.clear();
+        hash = 0;
+        if (journal != null) {
+            journal.recordAll();
+        }
+        min = ic.decode(buf);
+        max = ic.decode(buf);
+        int count = buf.getInt();
+        for (int i = 0; i < count; i++) {
+            IntegerElement pos = ic.decode(buf);
+            E e = codec.decode(buf);
+            store.put(pos, e);
+            rehash(pos, e);
+        }
+        int heads = buf.getInt();
+        for (int i = 0; i < heads; i++) {
+            IntegerElement pos = ic.decode(buf);
+            if (i < numHeads()) {
+                getHead(i).setPos(pos);
+            }
+        }
+    }
+
     public void dump() {
         IntegerElement i;
         System.out.println("+++ tape: " + this.toString());
@@ -0,0 +1,30 @@
+/*
+ * A BitCodec is the Codec for BitElements.  As characters they are
+ * '0' and '1'; in binary each takes a byte.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.nio.ByteBuffer;
+
+public class BitCodec implements Codec<BitElement> {
+    public char encodeChar(BitElement e) {
+        return e.getBoolean() ? '1' : '0';
+    }
+
+    public BitElement decodeChar(char c) {
+        return BitElement.create(c == '1');
+    }
+
+    public int encodedSize(BitElement e) {
+        return 1;
+    }
+
+    public void encode(BitElement e, ByteBuffer buf) {
+        buf.put(e.getBoolean() ? (byte)1 : (byte)0);
+    }
+
+    public BitElement decode(ByteBuffer buf) {
+        return BitElement.create(buf.get() != 0);
+    }
+}
@@ -1,6 +1,8 @@
 /*
  * A BitElement is a value which is either 0 or 1 and can
  * be stored in Playfields, Stacks, and Tapes.
+ * ZERO and ONE are the canonical instances; create(), fromChar() and
+ * invert() only ever return one of them.
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
@@ -33,6 +35,14 @@ public class BitElement implements Element {
         return false;
     }
 
+    public boolean equals(Object o) {
+        return o == this || (o instanceof BitElement && ((BitElement)o).value == value);
+    }
+
+    public int hashCode() {
+        return value ? 1 : 0;
+    }
+
     public boolean getBoolean() {
         return value;
     }
@@ -42,6 +52,6 @@ public class BitElement implements Element {
     }
 
     public BitElement invert() {
-        return this == ONE ? ZERO : ONE;
+        return value ? ZERO : ONE;
     }
 }
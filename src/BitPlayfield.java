@@ -0,0 +1,45 @@
+/*
+ * A BitPlayfield is a BasicPlayfield of BitElements, with ZERO as the
+ * default, whose cells are kept in a BitTileMap: one bit per cell.  It
+ * also provides invert() and population counts.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public class BitPlayfield extends BasicPlayfield<BitElement> {
+    public BitPlayfield() {
+        super(BitElement.ZERO);
+    }
+
+    public BitPlayfield clone() {
+        BitPlayfield c = new BitPlayfield();
+        c.copyBackingStoreFrom(this);
+        return c;
+    }
+
+    protected PlayfieldStore<BitElement> createStore() {
+        return new BitTileMap();
+    }
+
+    public void invert(IntegerElement x, IntegerElement y) {
+        set(x, y, get(x, y).invert());
+    }
+
+    public void invert(long x, long y) {
+        set(x, y, get(x, y).invert());
+    }
+
+    /*
+     * The number of cells which hold ONE.
+     */
+    public long popCount() {
+        return ((BitTileMap)store).popCount();
+    }
+
+    /*
+     * The number of cells in the given (inclusive) area which hold ONE.
+     */
+    public long popCount(long minX, long minY, long maxX, long maxY) {
+        return ((BitTileMap)store).popCount(minX, minY, maxX, maxY);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * A BitTape is a BasicTape of BitElements, with ZERO as the default,
+ * whose cells are kept in a BitTapeStore: one bit per cell.  It also
+ * provides invert() and population counts, and lets a language read and
+ * write cells as plain booleans.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public class BitTape extends BasicTape<BitElement> {
+    public BitTape() {
+        super(BitElement.ZERO);
+    }
+
+    public BitTape clone() {
+        BitTape c = new BitTape();
+        c.copyBackingStoreFrom(this);
+        c.head = this.head.clone();
+        c.head.setTape(c);
+        return c;
+    }
+
+    protected TapeStore<BitElement> createStore() {
+        return new BitTapeStore();
+    }
+
+    public boolean readBit(long pos) {
+        return ((BitTapeStore)store).getBit(pos);
+    }
+
+    public void writeBit(long pos, boolean value) {
+        boolean old = ((BitTapeStore)store).setBit(pos, value);
+        if (old != value) {
+            hash ^= Zobrist.cell(pos, BitElement.ONE);
+            if (journal != null) {
+                journal.record(pos, 0);
+            }
+        }
+        extendBounds(pos);
+    }
+
+    /*
+     * Flip the bit at pos, returning its new value.
+     */
+    public boolean invert(long pos) {
+        boolean value = !readBit(pos);
+        writeBit(pos, value);
+        return value;
+    }
+
+    public boolean invert(IntegerElement pos) {
+        if (pos.isLong()) {
+            return invert(pos.longValue());
+        }
+        BitElement e = read(pos).invert();
+        write(pos, e);
+        return e.getBoolean();
+    }
+
+    /*
+     * The number of cells which hold ONE.
+     */
+    public long popCount() {
+        return ((BitTapeStore)store).popCount();
+    }
+
+    /*
+     * The number of cells from lo to hi (inclusive) which hold ONE.
+     */
+    public long popCount(long lo, long hi) {
+        return ((BitTapeStore)store).popCount(lo, hi);
+    }
+}
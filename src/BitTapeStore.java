@@ -0,0 +1,155 @@
+/*
+ * A BitTapeStore is an AbstractArrayTapeStore for BitElements whose
+ * arrays are arrays of longs, one bit per cell.  A set bit means the
+ * cell holds BitElement.ONE.  Cells holding BitElement.ZERO are not
+ * distinguished from empty ones, so storing ZERO is the same as storing
+ * null; this is the right thing for a tape whose default is ZERO.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class BitTapeStore extends AbstractArrayTapeStore<BitElement> {
+    private static final int INITIAL_CAPACITY = 256; // in bits
+
+    private long[] pos = new long[INITIAL_CAPACITY / 64];
+    private long[] neg = new long[INITIAL_CAPACITY / 64];
+
+    public BitTapeStore() {
+        super(INITIAL_CAPACITY);
+    }
+
+    public BitTapeStore clone() {
+        BitTapeStore c = new BitTapeStore();
+        copyTo(c);
+        c.pos = pos.clone();
+        c.neg = neg.clone();
+        return c;
+    }
+
+    protected BitElement normalize(BitElement e) {
+        return (e == null || !e.getBoolean()) ? null : e;
+    }
+
+    protected int capacity(boolean negative) {
+        return (negative ? neg.length : pos.length) * 64;
+    }
+
+    // capacity is always a multiple of 64, as the arrays only double
+    protected void resize(boolean negative, int capacity) {
+        if (negative) {
+            neg = Arrays.copyOf(neg, capacity / 64);
+        } else {
+            pos = Arrays.copyOf(pos, capacity / 64);
+        }
+    }
+
+    protected BitElement getCell(boolean negative, int i) {
+        return ((negative ? neg : pos)[i >> 6] & (1L << i)) != 0 ? BitElement.ONE : null;
+    }
+
+    protected BitElement setCell(boolean negative, int i, BitElement e) {
+        long[] a = negative ? neg : pos;
+        long bit = 1L << i;
+        boolean old = (a[i >> 6] & bit) != 0;
+        if (e != null) {
+            a[i >> 6] |= bit;
+        } else {
+            a[i >> 6] &= ~bit;
+        }
+        return old ? BitElement.ONE : null;
+    }
+
+    public void clear() {
+        super.clear();
+        pos = new long[INITIAL_CAPACITY / 64];
+        neg = new long[INITIAL_CAPACITY / 64];
+    }
+
+    public boolean getBit(long p) {
+        if (p >= 0 && (p >> 6) < pos.length) {
+            return (pos[(int)(p >> 6)] & (1L << p)) != 0;
+        } else if (p < 0 && ((-1 - p) >> 6) < neg.length) {
+            return (neg[(int)((-1 - p) >> 6)] & (1L << (-1 - p))) != 0;
+        }
+        return get(p) != null;
+    }
+
+    /*
+     * Set the bit at the given position to the given value, returning
+     * its old value.
+     */
+    public boolean setBit(long p, boolean value) {
+        long[] a = p >= 0 ? pos : neg;
+        long i = p >= 0 ? p : -1 - p;
+        if ((i >> 6) >= a.length) {
+            return put(p, value ? BitElement.ONE : null) != null;
+        }
+        int w = (int)(i >> 6);
+        long bit = 1L << i;
+        boolean old = (a[w] & bit) != 0;
+        if (old != value) {
+            a[w] ^= bit;
+            adjustCount(value ? 1 : -1);
+        }
+        return old;
+    }
+
+    /*
+     * The number of cells holding ONE.
+     */
+    public long popCount() {
+        return size();
+    }
+
+    /*
+     * The number of set bits of a with indices from lo to hi (inclusive).
+     */
+    private static long countBits(long[] a, long lo, long hi) {
+        hi = Math.min(hi, (long)a.length * 64 - 1);
+        if (lo > hi) {
+            return 0;
+        }
+        int w0 = (int)(lo >> 6);
+        int w1 = (int)(hi >> 6);
+        long first = -1L << lo;
+        long last = -1L >>> (63 - (hi & 63));
+        if (w0 == w1) {
+            return Long.bitCount(a[w0] & first & last);
+        }
+        long n = Long.bitCount(a[w0] & first) + Long.bitCount(a[w1] & last);
+        for (int w = w0 + 1; w < w1; w++) {
+            n += Long.bitCount(a[w]);
+        }
+        return n;
+    }
+
+    /*
+     * The number of cells from lo to hi (inclusive) holding ONE.
+     * Cells whose positions do not fit in a long are not counted.
+     */
+    public long popCount(long lo, long hi) {
+        if (lo > hi) {
+            return 0;
+        }
+        long n = 0;
+        if (hi >= 0) {
+            n += countBits(pos, Math.max(lo, 0), hi);
+        }
+        if (lo < 0) {
+            n += countBits(neg, -1 - Math.min(hi, -1), -1 - lo);
+        }
+        if (sparse != null) {
+            for (Map.Entry<IntegerElement, BitElement> entry : sparse) {
+                IntegerElement k = entry.getKey();
+                if (k.isLong() && k.compareTo(lo) >= 0 && k.compareTo(hi) <= 0) {
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+}
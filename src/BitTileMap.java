@@ -0,0 +1,141 @@
+/*
+ * A BitTileMap is an AbstractTileMap for BitElements which keeps each
+ * tile as a bitboard: one long per row of the tile, one bit per cell.
+ * A set bit means the cell holds BitElement.ONE.  Cells holding
+ * BitElement.ZERO are not distinguished from empty ones, so storing ZERO
+ * is the same as storing null; this is the right thing for a playfield
+ * whose default is ZERO.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.List;
+
+public class BitTileMap extends AbstractTileMap<BitElement> {
+    protected static class BitTile extends Tile {
+        long[] rows = new long[TILE_SIZE];
+
+        BitTile(long tx, long ty, Object owner) {
+            super(tx, ty, owner);
+        }
+
+        protected Tile copy(Object owner) {
+            BitTile t = new BitTile(tx, ty, owner);
+            t.rows = rows.clone();
+            t.count = count;
+            return t;
+        }
+    }
+
+    protected AbstractTileMap<BitElement> newMap() {
+        return new BitTileMap();
+    }
+
+    protected Tile newTile(long tx, long ty, Object owner) {
+        return new BitTile(tx, ty, owner);
+    }
+
+    protected BitElement normalize(BitElement e) {
+        return (e == null || !e.getBoolean()) ? null : e;
+    }
+
+    public BitTileMap clone() {
+        return (BitTileMap)super.clone();
+    }
+
+    /*
+     * The number of cells holding ONE.
+     */
+    public long popCount() {
+        return cellCount();
+    }
+
+    public boolean getBit(long x, long y) {
+        BitTile t = (BitTile)findTile(x >> TILE_SHIFT, y >> TILE_SHIFT);
+        return t != null && (t.rows[(int)y & TILE_MASK] & (1L << (x & TILE_MASK))) != 0;
+    }
+
+    /*
+     * Set the bit at (x, y) to the given value, returning its old value.
+     */
+    public boolean setBit(long x, long y, boolean value) {
+        long tx = x >> TILE_SHIFT;
+        long ty = y >> TILE_SHIFT;
+        long bit = 1L << (x & TILE_MASK);
+        int ly = (int)y & TILE_MASK;
+        BitTile t = (BitTile)findTile(tx, ty);
+        if (t == null) {
+            if (!value) {
+                return false;
+            }
+            t = (BitTile)createTile(tx, ty);
+        }
+        boolean old = (t.rows[ly] & bit) != 0;
+        if (old == value) {
+            return old;
+        }
+        t = (BitTile)ownTile(t);
+        t.rows[ly] ^= bit;
+        adjustCount(t, value ? 1 : -1);
+        return old;
+    }
+
+    public BitElement get(long x, long y) {
+        return getBit(x, y) ? BitElement.ONE : null;
+    }
+
+    public BitElement put(long x, long y, BitElement e) {
+        return setBit(x, y, e != null && e.getBoolean()) ? BitElement.ONE : null;
+    }
+
+    /*
+     * The mask of the bits of a tile row which fall between lo and hi
+     * (inclusive), given that the row starts at base.
+     */
+    private static long rowMask(long base, long lo, long hi) {
+        int l = (int)(Math.max(base, lo) - base);
+        int h = (int)(Math.min(base + TILE_MASK, hi) - base);
+        if (l > h) {
+            return 0L;
+        }
+        return (-1L >>> (TILE_MASK - h)) & (-1L << l);
+    }
+
+    /*
+     * The number of cells holding ONE in the given (inclusive) area.
+     * Cells whose coordinates do not fit in a long are not counted.
+     */
+    public long popCount(long minX, long minY, long maxX, long maxY) {
+        long n = 0;
+        for (Tile tile : tilesIn(minX, minY, maxX, maxY)) {
+            BitTile t = (BitTile)tile;
+            long baseY = t.ty << TILE_SHIFT;
+            long mask = rowMask(t.tx << TILE_SHIFT, minX, maxX);
+            int ly0 = (int)(Math.max(baseY, minY) - baseY);
+            int ly1 = (int)(Math.min(baseY + TILE_MASK, maxY) - baseY);
+            for (int ly = ly0; ly <= ly1; ly++) {
+                n += Long.bitCount(t.rows[ly] & mask);
+            }
+        }
+        return n;
+    }
+
+    protected void visitTileRow(List<Tile> row, long minX, long minY, long maxX, long maxY, CellVisitor<BitElement> v) {
+        long baseY = row.get(0).ty << TILE_SHIFT;
+        int ly0 = (int)(Math.max(baseY, minY) - baseY);
+        int ly1 = (int)(Math.min(baseY + TILE_MASK, maxY) - baseY);
+        for (int ly = ly0; ly <= ly1; ly++) {
+            for (Tile tile : row) {
+                BitTile t = (BitTile)tile;
+                long baseX = t.tx << TILE_SHIFT;
+                long bits = t.rows[ly] & rowMask(baseX, minX, maxX);
+                while (bits != 0) {
+                    int lx = Long.numberOfTrailingZeros(bits);
+                    v.visit(baseX + lx, baseY + ly, BitElement.ONE);
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * A ByteCodec is the Codec for ByteElements.  Each is written as
+ * a single byte.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.nio.ByteBuffer;
+
+public class ByteCodec implements Codec<ByteElement> {
+    public char encodeChar(ByteElement e) {
+        return e.toChar();
+    }
+
+    public ByteElement decodeChar(char c) {
+        return ByteElement.valueOf(c);
+    }
+
+    public int encodedSize(ByteElement e) {
+        return 1;
+    }
+
+    public void encode(ByteElement e, ByteBuffer buf) {
+        buf.put((byte)e.value);
+    }
+
+    public ByteElement decode(ByteBuffer buf) {
+        return ByteElement.valueOf(buf.get());
+    }
+}
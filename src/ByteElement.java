@@ -1,14 +1,24 @@
 /*
  * A ByteElement is an bounded (mod 256) non-negative integer that can
  * be stored in Playfields, Stacks, and Tapes.
+ * There are only 256 of them, so valueOf() and the arithmetic methods
+ * hand out instances from a table rather than allocating.
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
 
 public class ByteElement implements Element {
     final protected short value; // because Java's bytes are signed
-    public static final ByteElement ZERO = new ByteElement(0);
-    public static final ByteElement ONE = new ByteElement(1);
+    private static final ByteElement[] table = new ByteElement[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            table[i] = new ByteElement(i);
+        }
+    }
+
+    public static final ByteElement ZERO = table[0];
+    public static final ByteElement ONE = table[1];
 
     public ByteElement(int value) {
         while (value < 0) value += 256;
@@ -21,8 +31,12 @@ public class ByteElement implements Element {
         this.value = (short)(v % 256);
     }
 
+    public static ByteElement valueOf(int value) {
+        return table[value & 0xff];
+    }
+
     public String getName() {
-        return new Short(value).toString();
+        return Short.toString(value);
     }
 
     public boolean equals(Element e) {
@@ -32,8 +46,16 @@ public class ByteElement implements Element {
         return false;
     }
 
+    public boolean equals(Object o) {
+        return o == this || (o instanceof ByteElement && ((ByteElement)o).value == value);
+    }
+
+    public int hashCode() {
+        return value;
+    }
+
     public ByteElement fromChar(char c) {
-        return new ByteElement(c);
+        return valueOf(c);
     }
 
     public char toChar() {
@@ -41,27 +63,27 @@ public class ByteElement implements Element {
     }
 
     public IntegerElement toIntegerElement() {
-        return new IntegerElement(value);
+        return IntegerElement.valueOf(value);
     }
 
     public ByteElement succ() {
-        return new ByteElement(value + 1);
+        return valueOf(value + 1);
     }
 
     public ByteElement pred() {
-        return new ByteElement(value - 1);
+        return valueOf(value - 1);
     }
 
     public ByteElement add(ByteElement other) {
-        return new ByteElement(value + other.value);
+        return valueOf(value + other.value);
     }
 
     public ByteElement subtract(ByteElement other) {
-        return new ByteElement(value - other.value);
+        return valueOf(value - other.value);
     }
 
     public ByteElement multiply(ByteElement other) {
-        return new ByteElement(value * other.value);
+        return valueOf(value * other.value);
     }
 
     public boolean isZero() {
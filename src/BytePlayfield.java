@@ -0,0 +1,22 @@
+/*
+ * A BytePlayfield is a BasicPlayfield of ByteElements, with ZERO as the
+ * default, whose cells are kept in a ByteTileMap: one byte per cell.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public class BytePlayfield extends BasicPlayfield<ByteElement> {
+    public BytePlayfield() {
+        super(ByteElement.ZERO);
+    }
+
+    public BytePlayfield clone() {
+        BytePlayfield c = new BytePlayfield();
+        c.copyBackingStoreFrom(this);
+        return c;
+    }
+
+    protected PlayfieldStore<ByteElement> createStore() {
+        return new ByteTileMap();
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * A ByteTape is a BasicTape of ByteElements, with ZERO as the default,
+ * whose cells are kept in a ByteTapeStore: one byte per cell.  As well
+ * as the usual Tape methods, it lets a language read, write and adjust
+ * cells as plain ints, which allocates nothing.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public class ByteTape extends BasicTape<ByteElement> {
+    public ByteTape() {
+        super(ByteElement.ZERO);
+    }
+
+    public ByteTape clone() {
+        ByteTape c = new ByteTape();
+        c.copyBackingStoreFrom(this);
+        c.head = this.head.clone();
+        c.head.setTape(c);
+        return c;
+    }
+
+    protected TapeStore<ByteElement> createStore() {
+        return new ByteTapeStore();
+    }
+
+    /*
+     * Return the value of the cell at pos, from 0 to 255.
+     */
+    public int readByte(long pos) {
+        return ((ByteTapeStore)store).getByte(pos);
+    }
+
+    /*
+     * Set the cell at pos to the low 8 bits of b.
+     */
+    public void writeByte(long pos, int b) {
+        b &= 0xff;
+        int old = ((ByteTapeStore)store).setByte(pos, b);
+        if (old != b) {
+            if (old != 0) {
+                hash ^= Zobrist.cell(pos, ByteElement.valueOf(old));
+            }
+            if (b != 0) {
+                hash ^= Zobrist.cell(pos, ByteElement.valueOf(b));
+            }
+            if (journal != null) {
+                journal.record(pos, 0);
+            }
+        }
+        extendBounds(pos);
+    }
+
+    /*
+     * Add delta to the cell at pos (mod 256), returning its new value.
+     */
+    public int addAt(long pos, int delta) {
+        int b = (readByte(pos) + delta) & 0xff;
+        writeByte(pos, b);
+        return b;
+    }
+}
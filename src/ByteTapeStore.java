@@ -0,0 +1,99 @@
+/*
+ * A ByteTapeStore is an AbstractArrayTapeStore for ByteElements whose
+ * arrays are byte arrays, one byte per cell.  A zero byte means the cell
+ * is empty, so storing ByteElement.ZERO is the same as storing null;
+ * this is the right thing for a tape whose default is ZERO.  Elements
+ * are handed back out as the canonical ByteElement instances.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.Arrays;
+
+public class ByteTapeStore extends AbstractArrayTapeStore<ByteElement> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private byte[] pos = new byte[INITIAL_CAPACITY];
+    private byte[] neg = new byte[INITIAL_CAPACITY];
+
+    public ByteTapeStore() {
+        super(INITIAL_CAPACITY);
+    }
+
+    public ByteTapeStore clone() {
+        ByteTapeStore c = new ByteTapeStore();
+        copyTo(c);
+        c.pos = pos.clone();
+        c.neg = neg.clone();
+        return c;
+    }
+
+    protected ByteElement normalize(ByteElement e) {
+        return (e == null || e.value == 0) ? null : e;
+    }
+
+    protected int capacity(boolean negative) {
+        return negative ? neg.length : pos.length;
+    }
+
+    protected void resize(boolean negative, int capacity) {
+        if (negative) {
+            neg = Arrays.copyOf(neg, capacity);
+        } else {
+            pos = Arrays.copyOf(pos, capacity);
+        }
+    }
+
+    protected ByteElement getCell(boolean negative, int i) {
+        int b = (negative ? neg : pos)[i] & 0xff;
+        return b == 0 ? null : ByteElement.valueOf(b);
+    }
+
+    protected ByteElement setCell(boolean negative, int i, ByteElement e) {
+        ByteElement old = getCell(negative, i);
+        (negative ? neg : pos)[i] = (byte)(e == null ? 0 : e.value);
+        return old;
+    }
+
+    public void clear() {
+        super.clear();
+        pos = new byte[INITIAL_CAPACITY];
+        neg = new byte[INITIAL_CAPACITY];
+    }
+
+    /*
+     * Return the byte at the given position, from 0 to 255.
+     */
+    public int getByte(long p) {
+        if (p >= 0 && p < pos.length) {
+            return pos[(int)p] & 0xff;
+        } else if (p < 0 && -1 - p < neg.length) {
+            return neg[(int)(-1 - p)] & 0xff;
+        }
+        ByteElement e = get(p);
+        return e == null ? 0 : e.value;
+    }
+
+    /*
+     * Set the byte at the given position to the low 8 bits of b,
+     * returning its old value.
+     */
+    public int setByte(long p, int b) {
+        b &= 0xff;
+        byte[] a = p >= 0 ? pos : neg;
+        long i = p >= 0 ? p : -1 - p;
+        if (i >= a.length) {
+            ByteElement old = put(p, ByteElement.valueOf(b));
+            return old == null ? 0 : old.value;
+        }
+        int old = a[(int)i] & 0xff;
+        a[(int)i] = (byte)b;
+        if (old == 0 && b != 0) {
+            adjustCount(1);
+        } else if (old != 0 && b == 0) {
+            adjustCount(-1);
+        }
+        return old;
+    }
+}
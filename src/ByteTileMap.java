@@ -0,0 +1,117 @@
+/*
+ * A ByteTileMap is an AbstractTileMap for ByteElements which keeps each
+ * tile as a byte array, one byte per cell.  A zero byte means the cell
+ * is empty, so storing ByteElement.ZERO is the same as storing null;
+ * this is the right thing for a playfield whose default is ZERO.
+ * Elements are handed back out as the canonical ByteElement instances.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.List;
+
+public class ByteTileMap extends AbstractTileMap<ByteElement> {
+    protected static class ByteTile extends Tile {
+        byte[] cells = new byte[TILE_SIZE * TILE_SIZE];
+
+        ByteTile(long tx, long ty, Object owner) {
+            super(tx, ty, owner);
+        }
+
+        protected Tile copy(Object owner) {
+            ByteTile t = new ByteTile(tx, ty, owner);
+            t.cells = cells.clone();
+            t.count = count;
+            return t;
+        }
+    }
+
+    protected AbstractTileMap<ByteElement> newMap() {
+        return new ByteTileMap();
+    }
+
+    protected Tile newTile(long tx, long ty, Object owner) {
+        return new ByteTile(tx, ty, owner);
+    }
+
+    protected ByteElement normalize(ByteElement e) {
+        return (e == null || e.value == 0) ? null : e;
+    }
+
+    public ByteTileMap clone() {
+        return (ByteTileMap)super.clone();
+    }
+
+    /*
+     * Return the byte at (x, y), from 0 to 255.
+     */
+    public int getByte(long x, long y) {
+        ByteTile t = (ByteTile)findTile(x >> TILE_SHIFT, y >> TILE_SHIFT);
+        if (t == null) {
+            return 0;
+        }
+        return t.cells[((int)y & TILE_MASK) * TILE_SIZE + ((int)x & TILE_MASK)] & 0xff;
+    }
+
+    /*
+     * Set the byte at (x, y) to the low 8 bits of b, returning its old
+     * value.
+     */
+    public int setByte(long x, long y, int b) {
+        long tx = x >> TILE_SHIFT;
+        long ty = y >> TILE_SHIFT;
+        ByteTile t = (ByteTile)findTile(tx, ty);
+        b &= 0xff;
+        if (t == null) {
+            if (b == 0) {
+                return 0;
+            }
+            t = (ByteTile)createTile(tx, ty);
+        }
+        int i = ((int)y & TILE_MASK) * TILE_SIZE + ((int)x & TILE_MASK);
+        int old = t.cells[i] & 0xff;
+        if (old == b) {
+            return old;
+        }
+        t = (ByteTile)ownTile(t);
+        t.cells[i] = (byte)b;
+        if (old == 0) {
+            adjustCount(t, 1);
+        } else if (b == 0) {
+            adjustCount(t, -1);
+        }
+        return old;
+    }
+
+    public ByteElement get(long x, long y) {
+        int b = getByte(x, y);
+        return b == 0 ? null : ByteElement.valueOf(b);
+    }
+
+    public ByteElement put(long x, long y, ByteElement e) {
+        int old = setByte(x, y, e == null ? 0 : e.value);
+        return old == 0 ? null : ByteElement.valueOf(old);
+    }
+
+    protected void visitTileRow(List<Tile> row, long minX, long minY, long maxX, long maxY, CellVisitor<ByteElement> v) {
+        long baseY = row.get(0).ty << TILE_SHIFT;
+        int ly0 = (int)(Math.max(baseY, minY) - baseY);
+        int ly1 = (int)(Math.min(baseY + TILE_MASK, maxY) - baseY);
+        for (int ly = ly0; ly <= ly1; ly++) {
+            for (Tile tile : row) {
+                ByteTile t = (ByteTile)tile;
+                long baseX = t.tx << TILE_SHIFT;
+                int lx0 = (int)(Math.max(baseX, minX) - baseX);
+                int lx1 = (int)(Math.min(baseX + TILE_MASK, maxX) - baseX);
+                byte[] cells = t.cells;
+                for (int lx = lx0; lx <= lx1; lx++) {
+                    int b = cells[ly * TILE_SIZE + lx] & 0xff;
+                    if (b != 0) {
+                        v.visit(baseX + lx, baseY + ly, ByteElement.valueOf(b));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,10 @@
+/*
+ * A CellVisitor is given each cell of a Playfield in turn by
+ * Playfield.forEachCell().
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public interface CellVisitor<E> {
+    void visit(long x, long y, E e);
+}
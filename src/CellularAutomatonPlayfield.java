@@ -1,5 +1,5 @@
 /*
- * A CellularAutomatonPlayfield is a BasicPlayfield that provides measures
+ * A CellularAutomatonPlayfield is a TiledPlayfield that provides measures
  * to make it easier to implement a cellular automaton.
  * The source code in this file has been placed into the public domain.
  */
@@ -10,11 +10,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
 
-public abstract class CellularAutomatonPlayfield<E extends Element> extends BasicPlayfield<E> {
+public abstract class CellularAutomatonPlayfield<E extends Element> extends TiledPlayfield<E> {
     public CellularAutomatonPlayfield(E def) {
         super(def);
     }
 
+    public CellularAutomatonPlayfield(E def, PlayfieldStore<E> store) {
+        super(def, store);
+    }
+
     public int getNeighbours(IntegerElement x, IntegerElement y, Criterion<E> c) {
         int n = 0;
         if (c.qualifies(get(x.pred(), y.pred()))) n++;
@@ -28,19 +32,37 @@ public abstract class CellularAutomatonPlayfield<E extends Element> extends Basi
         return n;
     }
 
-    public void step(CellularAutomatonPlayfield<E> nu) {
-        for (IntegerElement x = getMinX().pred();
-             x.compareTo(getMaxX().succ()) <= 0;
-             x = x.succ()) {
-            for (IntegerElement y = getMinY().pred();
-                 y.compareTo(getMaxY().succ()) <= 0;
-                 y = y.succ()) {
-                E elem = get(x, y);
-                E result = applyRules(x, y, elem);
-                if (result != null) {
-                    nu.set(x, y, result);
+    /*
+     * Only the non-default cells, and the default cells next to them, are
+     * considered; a default cell with no non-default neighbours is taken
+     * to stay as it is.
+     */
+    public void step(final CellularAutomatonPlayfield<E> nu) {
+        final E def = getDefault();
+        final PositionMap<E> fringe = new PositionMap<E>();
+        forEachCell(new CellVisitor<E>() {
+            public void visit(long x, long y, E elem) {
+                applyRulesTo(nu, x, y, elem);
+                for (long dy = -1; dy <= 1; dy++) {
+                    for (long dx = -1; dx <= 1; dx++) {
+                        if (get(x + dx, y + dy).equals(def)) {
+                            fringe.put(x + dx, y + dy, def);
+                        }
+                    }
                 }
             }
+        });
+        fringe.forEachCell(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE, new CellVisitor<E>() {
+            public void visit(long x, long y, E elem) {
+                applyRulesTo(nu, x, y, elem);
+            }
+        });
+    }
+
+    private void applyRulesTo(CellularAutomatonPlayfield<E> nu, long x, long y, E elem) {
+        E result = applyRules(IntegerElement.valueOf(x), IntegerElement.valueOf(y), elem);
+        if (result != null) {
+            nu.set(x, y, result);
         }
     }
 
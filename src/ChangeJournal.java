@@ -0,0 +1,149 @@
+/*
+ * A ChangeJournal records which cells of a BasicPlayfield (or BasicTape)
+ * have been written to, and the bounding box of those cells, so that
+ * something which looks at the structure after each step -- a renderer,
+ * a history recorder -- can look at only what changed.
+ *
+ * A journal is attached with setJournal(); structures without one pay
+ * only for a null check.  Tapes record each position as (pos, 0).
+ *
+ * At most limit positions are listed.  Past that, or when the whole
+ * structure is replaced (by clear() or readFrom()), the journal only
+ * promises a bounding box, and isComplete() returns false.  Writing the
+ * same cell twice in a row is recorded once.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public class ChangeJournal {
+    public static final int DEFAULT_LIMIT = 4096;
+
+    private final int limit;
+    private long[] xs = new long[16];
+    private long[] ys = new long[16];
+    private int count = 0;
+    private boolean complete = true;
+    private long minX = Long.MAX_VALUE, minY = Long.MAX_VALUE;
+    private long maxX = Long.MIN_VALUE, maxY = Long.MIN_VALUE;
+
+    public ChangeJournal() {
+        this(DEFAULT_LIMIT);
+    }
+
+    public ChangeJournal(int limit) {
+        this.limit = limit;
+    }
+
+    public void record(long x, long y) {
+        if (x < minX) minX = x;
+        if (x > maxX) maxX = x;
+        if (y < minY) minY = y;
+        if (y > maxY) maxY = y;
+        if (!complete || (count > 0 && xs[count - 1] == x && ys[count - 1] == y)) {
+            return;
+        }
+        if (count == limit) {
+            complete = false;
+            return;
+        }
+        if (count == xs.length) {
+            int capacity = Math.min(count * 2, limit);
+            long[] nxs = new long[capacity];
+            long[] nys = new long[capacity];
+            System.arraycopy(xs, 0, nxs, 0, count);
+            System.arraycopy(ys, 0, nys, 0, count);
+            xs = nxs;
+            ys = nys;
+        }
+        xs[count] = x;
+        ys[count] = y;
+        count++;
+    }
+
+    public void record(IntegerElement x, IntegerElement y) {
+        if (x.isLong() && y.isLong()) {
+            record(x.longValue(), y.longValue());
+        } else {
+            recordAll();
+        }
+    }
+
+    /*
+     * Note that anything at all may have changed.
+     */
+    public void recordAll() {
+        complete = false;
+        minX = minY = Long.MIN_VALUE;
+        maxX = maxY = Long.MAX_VALUE;
+    }
+
+    public boolean isEmpty() {
+        return minX > maxX;
+    }
+
+    /*
+     * True iff every changed position is listed.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long getX(int index) {
+        return xs[index];
+    }
+
+    public long getY(int index) {
+        return ys[index];
+    }
+
+    /*
+     * The dirty bounding box.  Only meaningful if !isEmpty().
+     */
+    public long getMinX() {
+        return minX;
+    }
+
+    public long getMinY() {
+        return minY;
+    }
+
+    public long getMaxX() {
+        return maxX;
+    }
+
+    public long getMaxY() {
+        return maxY;
+    }
+
+    public void clear() {
+        count = 0;
+        complete = true;
+        minX = minY = Long.MAX_VALUE;
+        maxX = maxY = Long.MIN_VALUE;
+    }
+
+    /*
+     * Return a journal holding everything recorded so far, and clear this
+     * one.  The recorded positions are handed over, not copied.
+     */
+    public ChangeJournal drain() {
+        ChangeJournal d = new ChangeJournal(limit);
+        d.xs = xs;
+        d.ys = ys;
+        d.count = count;
+        d.complete = complete;
+        d.minX = minX;
+        d.minY = minY;
+        d.maxX = maxX;
+        d.maxY = maxY;
+        xs = new long[16];
+        ys = new long[16];
+        clear();
+        return d;
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * A CharacterCodec is the Codec for CharacterElements.  Each is
+ * written as a two-byte char.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.nio.ByteBuffer;
+
+public class CharacterCodec implements Codec<CharacterElement> {
+    public char encodeChar(CharacterElement e) {
+        return e.getChar();
+    }
+
+    public CharacterElement decodeChar(char c) {
+        return CharacterElement.of(c);
+    }
+
+    public int encodedSize(CharacterElement e) {
+        return 2;
+    }
+
+    public void encode(CharacterElement e, ByteBuffer buf) {
+        buf.putChar(e.getChar());
+    }
+
+    public CharacterElement decode(ByteBuffer buf) {
+        return CharacterElement.of(buf.getChar());
+    }
+}
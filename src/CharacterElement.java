@@ -1,48 +1,85 @@
 /*
  * A CharacterElement is a Java Character that can be used as an Element in
  * Playfields, Stacks, and Tapes.
+ *
+ * CharacterElements are flyweights: of() returns the one canonical
+ * instance for each character, creating it on first use.  Two
+ * CharacterElements are equal iff they hold the same char, so instances
+ * made with the constructors still compare correctly, but there is
+ * rarely any reason to make one.
+ *
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
 
 public class CharacterElement implements Element {
-    private final Character c;
+    // Canonical instances, in 256 lazily-allocated pages of 256.
+    private static final CharacterElement[][] pool = new CharacterElement[256][];
+
+    private final char c;
+    private String name = null;
 
     public CharacterElement(char c) {
-        this.c = new Character(c);
+        this.c = c;
     }
 
     public CharacterElement(int initial) {
-        this.c = new Character((char)initial);
+        this.c = (char)initial;
+    }
+
+    public static CharacterElement of(char c) {
+        CharacterElement[] page = pool[c >>> 8];
+        if (page == null) {
+            page = new CharacterElement[256];
+            pool[c >>> 8] = page;
+        }
+        CharacterElement e = page[c & 0xff];
+        if (e == null) {
+            e = new CharacterElement(c);
+            page[c & 0xff] = e;
+        }
+        return e;
+    }
+
+    public static CharacterElement of(int initial) {
+        return of((char)initial);
     }
 
     public String getName() {
-        return c.toString();
+        if (name == null) {
+            name = String.valueOf(c);
+        }
+        return name;
     }
 
     public boolean equals(Element e) {
-        if (e instanceof CharacterElement) {
-            return this.getName().equals(e.getName());
-        }
-        return false;
+        return e == this || (e instanceof CharacterElement && ((CharacterElement)e).c == c);
+    }
+
+    public boolean equals(Object o) {
+        return o == this || (o instanceof CharacterElement && ((CharacterElement)o).c == c);
+    }
+
+    public int hashCode() {
+        return c;
     }
 
     public CharacterElement fromChar(char o) {
-        return new CharacterElement(o);
+        return of(o);
     }
 
     public char getChar() {
-        return c.toString().charAt(0);
+        return c;
     }
 
     public boolean isDigit() {
-        return Character.isDigit(c.charValue());
+        return Character.isDigit(c);
     }
 
     /*
      * Not well defined if isDigit() is false
      */
     public int digitValue() {
-        return (int)c.charValue() - (int)'0';
+        return (int)c - (int)'0';
     }
 }
@@ -0,0 +1,24 @@
+/*
+ * A Codec describes how Elements of some type are converted to and from
+ * external representations: a single character (as used in program
+ * text and dumps) and a compact binary form (as used when saving and
+ * restoring whole Playfields and Tapes to and from ByteBuffers.)
+ *
+ * Codecs are expected to be stateless, so one instance may be shared.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.nio.ByteBuffer;
+
+public interface Codec<E extends Element> {
+    char    encodeChar(E e);
+    E       decodeChar(char c);
+    /*
+     * The number of bytes encode() will write for the given element.
+     */
+    int     encodedSize(E e);
+    void    encode(E e, ByteBuffer buf);
+    E       decode(ByteBuffer buf);
+}
@@ -1,5 +1,5 @@
 /*
- * A CommonPlayfield inherits from BasicPlayfield, and adds semantics
+ * A CommonPlayfield inherits from TiledPlayfield, and adds semantics
  * to it that are common to many 2-dimensional languages.  Mainly this
  * is specifying that the playfield contains characters, by default blank,
  * and has a single BasicCursor called the IP (Instruction Pointer).
@@ -10,14 +10,23 @@ package tc.catseye.yoob;
 import java.util.Map;
 import java.util.HashMap;
 
-public class CommonPlayfield extends BasicPlayfield<CharacterElement> {
+public class CommonPlayfield extends TiledPlayfield<CharacterElement> {
     protected BasicCursor<CharacterElement> ip = null;
 
     public CommonPlayfield() {
-        super(new CharacterElement(' '));
+        super(CharacterElement.of(' '));
         clear();
     }
 
+    /*
+     * Use the given store, keeping its contents; the IP starts at the
+     * origin, as usual.
+     */
+    public CommonPlayfield(PlayfieldStore<CharacterElement> store) {
+        super(CharacterElement.of(' '), store);
+        ip = new BasicCursor<CharacterElement>(this, IntegerElement.ZERO, IntegerElement.ZERO, IntegerElement.ONE, IntegerElement.ZERO);
+    }
+
     public void clear() {
         super.clear();
         ip = new BasicCursor<CharacterElement>(this, IntegerElement.ZERO, IntegerElement.ZERO, IntegerElement.ONE, IntegerElement.ZERO);
@@ -42,7 +51,7 @@ public class CommonPlayfield extends BasicPlayfield<CharacterElement> {
     }
 
     public void loadChar(int x, int y, char c) {
-        set(x, y, new CharacterElement(c));
+        set(x, y, CharacterElement.of(c));
     }
 
     public boolean hasFallenOffEdge() {
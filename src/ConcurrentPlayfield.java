@@ -0,0 +1,383 @@
+/*
+ * A ConcurrentPlayfield is a Playfield which may be read and written by
+ * several threads at once.
+ *
+ * Cells are kept in tiles of TILE_SIZE x TILE_SIZE, and the tiles are
+ * divided among a number of stripes, each with its own lock, so threads
+ * working on different parts of the playfield seldom wait for each
+ * other.  Cells whose coordinates do not fit in a long are kept in a
+ * PositionMap with a lock of its own.
+ *
+ * The bounds only ever grow (until clear() is called), and are replaced
+ * all at once, so getMinX() etc. always describe a box containing every
+ * stored cell.  They are extended before a cell is stored, never after,
+ * and while holding the lock the cell is stored under, so clear() (which
+ * takes every lock) cannot come in between.
+ *
+ * Each get() and set() is atomic, and so is forEachCell(), which copies
+ * the tiles it needs while holding every lock, then visits the copies.
+ * snapshot() does the same for the whole playfield, giving a consistent
+ * picture of it for rendering (as PlayfieldDepiction does) or saving.
+ * The region operations are not atomic as a whole.
+ *
+ * A ConcurrentPlayfield has no cursors of its own.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrentPlayfield<E extends Element> implements Playfield<E> {
+    public static final int TILE_SHIFT = 6;
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    public static final int DEFAULT_STRIPES = 64;
+
+    private static class Bounds {
+        final IntegerElement minX, minY, maxX, maxY;
+
+        Bounds(IntegerElement minX, IntegerElement minY, IntegerElement maxX, IntegerElement maxY) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        boolean contains(long x, long y) {
+            return minX.compareTo(x) <= 0 && maxX.compareTo(x) >= 0 &&
+                   minY.compareTo(y) <= 0 && maxY.compareTo(y) >= 0;
+        }
+
+        boolean contains(IntegerElement x, IntegerElement y) {
+            return minX.compareTo(x) <= 0 && maxX.compareTo(x) >= 0 &&
+                   minY.compareTo(y) <= 0 && maxY.compareTo(y) >= 0;
+        }
+
+        Bounds include(IntegerElement x, IntegerElement y) {
+            return new Bounds(x.compareTo(minX) < 0 ? x : minX,
+                              y.compareTo(minY) < 0 ? y : minY,
+                              x.compareTo(maxX) > 0 ? x : maxX,
+                              y.compareTo(maxY) > 0 ? y : maxY);
+        }
+    }
+
+    private static final Bounds EMPTY = new Bounds(IntegerElement.ZERO, IntegerElement.ZERO,
+                                                   IntegerElement.ONE.negate(), IntegerElement.ONE.negate());
+
+    // a copy of a tile, made while holding the locks
+    private static class TileCopy {
+        final long tx, ty;
+        final Object[] cells;
+
+        TileCopy(long tx, long ty, Object[] cells) {
+            this.tx = tx;
+            this.ty = ty;
+            this.cells = cells.clone();
+        }
+    }
+
+    private final E def;
+    private final int mask;
+    // stripes[i], and the tiles in it, may only be used while holding locks[i]
+    private final ReentrantLock[] locks;
+    private final PositionMap<Object[]>[] stripes;
+    private final ReentrantLock overflowLock = new ReentrantLock();
+    private PositionMap<E> overflow = new PositionMap<E>();
+    private final AtomicReference<Bounds> bounds = new AtomicReference<Bounds>(EMPTY);
+
+    public ConcurrentPlayfield(E def) {
+        this(def, DEFAULT_STRIPES);
+    }
+
+    /*
+     * The number of stripes is rounded up to a power of two.
+     */
+    public ConcurrentPlayfield(E def, int numStripes) {
+        int n = 1;
+        while (n < numStripes) {
+            n <<= 1;
+        }
+        this.def = def;
+        this.mask = n - 1;
+        locks = new ReentrantLock[n];
+        @SuppressWarnings("unchecked")
+        PositionMap<Object[]>[] maps = (PositionMap<Object[]>[])new PositionMap[n];
+        stripes = maps;
+        for (int i = 0; i < n; i++) {
+            locks[i] = new ReentrantLock();
+            stripes[i] = new PositionMap<Object[]>();
+        }
+    }
+
+    public ConcurrentPlayfield<E> clone() {
+        ConcurrentPlayfield<E> c = new ConcurrentPlayfield<E>(def, locks.length);
+        lockAll();
+        try {
+            // c is not yet shared, so it needs no locking
+            for (TileCopy t : copyTiles(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE)) {
+                c.stripes[c.stripeFor(t.tx, t.ty)].put(t.tx, t.ty, t.cells);
+            }
+            c.overflow = overflow.clone();
+            c.bounds.set(bounds.get());
+        } finally {
+            unlockAll();
+        }
+        return c;
+    }
+
+    // cells are kept as Objects, but only ever hold Es
+    @SuppressWarnings("unchecked")
+    private E element(Object e) {
+        return (E)e;
+    }
+
+    private int stripeFor(long tx, long ty) {
+        return (int)Zobrist.mix(tx ^ (ty * 0x9E3779B97F4A7C15L)) & mask;
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        overflowLock.lock();
+    }
+
+    private void unlockAll() {
+        overflowLock.unlock();
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+
+    private void grow(long x, long y) {
+        Bounds b = bounds.get();
+        while (!b.contains(x, y)) {
+            if (bounds.compareAndSet(b, b.include(IntegerElement.valueOf(x), IntegerElement.valueOf(y)))) {
+                return;
+            }
+            b = bounds.get();
+        }
+    }
+
+    private void grow(IntegerElement x, IntegerElement y) {
+        Bounds b = bounds.get();
+        while (!b.contains(x, y)) {
+            if (bounds.compareAndSet(b, b.include(x, y))) {
+                return;
+            }
+            b = bounds.get();
+        }
+    }
+
+    public void clear() {
+        lockAll();
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i] = new PositionMap<Object[]>();
+            }
+            overflow = new PositionMap<E>();
+            bounds.set(EMPTY);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    public E getDefault() {
+        return def;
+    }
+
+    public E get(long x, long y) {
+        long tx = x >> TILE_SHIFT;
+        long ty = y >> TILE_SHIFT;
+        int s = stripeFor(tx, ty);
+        Object e = null;
+        locks[s].lock();
+        try {
+            Object[] cells = stripes[s].get(tx, ty);
+            if (cells != null) {
+                e = cells[(((int)y & TILE_MASK) << TILE_SHIFT) + ((int)x & TILE_MASK)];
+            }
+        } finally {
+            locks[s].unlock();
+        }
+        return e == null ? def : element(e);
+    }
+
+    public E get(IntegerElement x, IntegerElement y) {
+        if (x.isLong() && y.isLong()) {
+            return get(x.longValue(), y.longValue());
+        }
+        E e;
+        overflowLock.lock();
+        try {
+            e = overflow.get(x, y);
+        } finally {
+            overflowLock.unlock();
+        }
+        return e == null ? def : e;
+    }
+
+    public void set(long x, long y, E e) {
+        if (e != null && e.equals(def)) {
+            e = null;
+        }
+        long tx = x >> TILE_SHIFT;
+        long ty = y >> TILE_SHIFT;
+        int s = stripeFor(tx, ty);
+        locks[s].lock();
+        try {
+            if (e != null) {
+                grow(x, y);
+            }
+            Object[] cells = stripes[s].get(tx, ty);
+            if (cells == null) {
+                if (e == null) {
+                    return;
+                }
+                cells = new Object[TILE_SIZE * TILE_SIZE];
+                stripes[s].put(tx, ty, cells);
+            }
+            cells[(((int)y & TILE_MASK) << TILE_SHIFT) + ((int)x & TILE_MASK)] = e;
+        } finally {
+            locks[s].unlock();
+        }
+    }
+
+    public void set(IntegerElement x, IntegerElement y, E e) {
+        if (x.isLong() && y.isLong()) {
+            set(x.longValue(), y.longValue(), e);
+            return;
+        }
+        if (e != null && e.equals(def)) {
+            e = null;
+        }
+        overflowLock.lock();
+        try {
+            if (e != null) {
+                grow(x, y);
+            }
+            overflow.put(x, y, e);
+        } finally {
+            overflowLock.unlock();
+        }
+    }
+
+    public IntegerElement getMinX() {
+        return bounds.get().minX;
+    }
+
+    public IntegerElement getMinY() {
+        return bounds.get().minY;
+    }
+
+    public IntegerElement getMaxX() {
+        return bounds.get().maxX;
+    }
+
+    public IntegerElement getMaxY() {
+        return bounds.get().maxY;
+    }
+
+    public int numCursors() {
+        return 0;
+    }
+
+    public Cursor getCursor(int index) {
+        return null;
+    }
+
+    // must be called holding every lock
+    private List<TileCopy> copyTiles(long tx0, long ty0, long tx1, long ty1) {
+        final List<TileCopy> copies = new ArrayList<TileCopy>();
+        CellVisitor<Object[]> copier = new CellVisitor<Object[]>() {
+            public void visit(long tx, long ty, Object[] cells) {
+                copies.add(new TileCopy(tx, ty, cells));
+            }
+        };
+        for (PositionMap<Object[]> stripe : stripes) {
+            stripe.forEachCell(tx0, ty0, tx1, ty1, copier);
+        }
+        return copies;
+    }
+
+    public void forEachCell(long minX, long minY, long maxX, long maxY, CellVisitor<E> v) {
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+        List<TileCopy> tiles;
+        lockAll();
+        try {
+            tiles = copyTiles(minX >> TILE_SHIFT, minY >> TILE_SHIFT, maxX >> TILE_SHIFT, maxY >> TILE_SHIFT);
+        } finally {
+            unlockAll();
+        }
+        Collections.sort(tiles, new Comparator<TileCopy>() {
+            public int compare(TileCopy a, TileCopy b) {
+                int c = Long.compare(a.ty, b.ty);
+                return c != 0 ? c : Long.compare(a.tx, b.tx);
+            }
+        });
+        int start = 0;
+        while (start < tiles.size()) {
+            int end = start;
+            long baseY = tiles.get(start).ty << TILE_SHIFT;
+            while (end < tiles.size() && tiles.get(end).ty == tiles.get(start).ty) {
+                end++;
+            }
+            int ly0 = (int)(Math.max(baseY, minY) - baseY);
+            int ly1 = (int)(Math.min(baseY + TILE_MASK, maxY) - baseY);
+            for (int ly = ly0; ly <= ly1; ly++) {
+                for (int k = start; k < end; k++) {
+                    TileCopy t = tiles.get(k);
+                    long baseX = t.tx << TILE_SHIFT;
+                    int lx0 = (int)(Math.max(baseX, minX) - baseX);
+                    int lx1 = (int)(Math.min(baseX + TILE_MASK, maxX) - baseX);
+                    for (int lx = lx0; lx <= lx1; lx++) {
+                        Object e = t.cells[(ly << TILE_SHIFT) + lx];
+                        if (e != null) {
+                            v.visit(baseX + lx, baseY + ly, element(e));
+                        }
+                    }
+                }
+            }
+            start = end;
+        }
+    }
+
+    /*
+     * A copy of the playfield as it was at one moment, which can be read
+     * at leisure while other threads carry on writing to this one.
+     */
+    public TiledPlayfield<E> snapshot() {
+        List<TileCopy> tiles;
+        PositionMap<E> big;
+        lockAll();
+        try {
+            tiles = copyTiles(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+            big = overflow.clone();
+        } finally {
+            unlockAll();
+        }
+        TiledPlayfield<E> s = new TiledPlayfield<E>(def);
+        for (TileCopy t : tiles) {
+            long baseX = t.tx << TILE_SHIFT;
+            long baseY = t.ty << TILE_SHIFT;
+            for (int i = 0; i < t.cells.length; i++) {
+                if (t.cells[i] != null) {
+                    s.set(baseX + (i & TILE_MASK), baseY + (i >> TILE_SHIFT), element(t.cells[i]));
+                }
+            }
+        }
+        for (Map.Entry<Position, E> entry : big) {
+            s.set(entry.getKey().getX(), entry.getKey().getY(), entry.getValue());
+        }
+        return s;
+    }
+}
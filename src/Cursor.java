@@ -1,5 +1,7 @@
 /*
  * A Cursor refers to a location in a Playfield.
+ * As with Playfield, the primitive-coordinate methods have boxing
+ * default implementations which stock implementations override.
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
@@ -14,4 +16,24 @@ public interface Cursor<E extends Element> {
     void           setX(IntegerElement x);
     void           setY(IntegerElement y);
     Cursor<E>      clone();
+
+    default long getXLong() {
+        return getX().longValue();
+    }
+
+    default long getYLong() {
+        return getY().longValue();
+    }
+
+    default void setX(long x) {
+        setX(IntegerElement.valueOf(x));
+    }
+
+    default void setY(long y) {
+        setY(IntegerElement.valueOf(y));
+    }
+
+    default long fingerprint() {
+        return Zobrist.combine(Zobrist.of(getX()), Zobrist.of(getY()));
+    }
 }
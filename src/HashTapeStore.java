@@ -0,0 +1,50 @@
+/*
+ * A HashTapeStore is a TapeStore kept in a HashMap.  It is the default
+ * TapeStore for BasicTapes, and suits tapes whose cells are few and far
+ * between.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+public class HashTapeStore<E> implements TapeStore<E> {
+    private HashMap<IntegerElement, E> map = new HashMap<IntegerElement, E>();
+
+    public HashTapeStore<E> clone() {
+        HashTapeStore<E> c = new HashTapeStore<E>();
+        c.map = new HashMap<IntegerElement, E>(map);
+        return c;
+    }
+
+    public E get(long pos) {
+        return map.get(IntegerElement.valueOf(pos));
+    }
+
+    public E get(IntegerElement pos) {
+        return map.get(pos);
+    }
+
+    public E put(long pos, E e) {
+        return put(IntegerElement.valueOf(pos), e);
+    }
+
+    public E put(IntegerElement pos, E e) {
+        return e == null ? map.remove(pos) : map.put(pos, e);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public Iterator<Map.Entry<IntegerElement, E>> iterator() {
+        return map.entrySet().iterator();
+    }
+}
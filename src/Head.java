@@ -1,5 +1,7 @@
 /*
  * A Head represents a position on a Tape.
+ * As with Tape, the primitive-position methods have boxing default
+ * implementations which stock implementations override.
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
@@ -14,4 +16,16 @@ public interface Head<E extends Element> {
     void           setPos(IntegerElement pos);
     void           move(IntegerElement delta);
     void           move(int delta);
+
+    default long getPosLong() {
+        return getPos().longValue();
+    }
+
+    default void setPos(long pos) {
+        setPos(IntegerElement.valueOf(pos));
+    }
+
+    default long fingerprint() {
+        return Zobrist.of(getPos());
+    }
 }
@@ -0,0 +1,31 @@
+/*
+ * An Int32Codec is the Codec for Int32Elements.  Each is written as
+ * a four-byte int; as a character, the value is taken as a character
+ * code (as Befunge-93 does.)
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.nio.ByteBuffer;
+
+public class Int32Codec implements Codec<Int32Element> {
+    public char encodeChar(Int32Element e) {
+        return e.toChar();
+    }
+
+    public Int32Element decodeChar(char c) {
+        return Int32Element.valueOf(c);
+    }
+
+    public int encodedSize(Int32Element e) {
+        return 4;
+    }
+
+    public void encode(Int32Element e, ByteBuffer buf) {
+        buf.putInt(e.getValue());
+    }
+
+    public Int32Element decode(ByteBuffer buf) {
+        return Int32Element.valueOf(buf.getInt());
+    }
+}
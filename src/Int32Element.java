@@ -1,13 +1,26 @@
 /*
  * An Int32Element is a bounded (mod 2^31) signed integer that can
  * be stored in Playfields, Stacks, and Tapes.
+ * Small values (those most often seen on a Befunge stack) are interned:
+ * valueOf() and the arithmetic methods return canonical instances for
+ * them.
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
 
 public class Int32Element implements Element {
-    final public static Int32Element ZERO = new Int32Element(0);
-    final public static Int32Element ONE = new Int32Element(1);
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    private static final Int32Element[] cache = new Int32Element[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < cache.length; i++) {
+            cache[i] = new Int32Element(CACHE_LOW + i);
+        }
+    }
+
+    final public static Int32Element ZERO = valueOf(0);
+    final public static Int32Element ONE = valueOf(1);
 
     final protected int value;
 
@@ -15,8 +28,15 @@ public class Int32Element implements Element {
         this.value = value;
     }
 
+    public static Int32Element valueOf(int value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return cache[value - CACHE_LOW];
+        }
+        return new Int32Element(value);
+    }
+
     public String getName() {
-        return new Integer(value).toString();
+        return Integer.toString(value);
     }
 
     public boolean equals(Element e) {
@@ -26,8 +46,16 @@ public class Int32Element implements Element {
         return false;
     }
 
+    public boolean equals(Object o) {
+        return o == this || (o instanceof Int32Element && ((Int32Element)o).value == value);
+    }
+
+    public int hashCode() {
+        return value;
+    }
+
     public Int32Element fromChar(char c) {
-        return new Int32Element((int)c);
+        return valueOf((int)c);
     }
 
     public char toChar() {
@@ -39,31 +67,31 @@ public class Int32Element implements Element {
     }
 
     public Int32Element add(Int32Element other) {
-        return new Int32Element(value + other.value);
+        return valueOf(value + other.value);
     }
 
     public Int32Element subtract(Int32Element other) {
-        return new Int32Element(value - other.value);
+        return valueOf(value - other.value);
     }
 
     public Int32Element multiply(Int32Element other) {
-        return new Int32Element(value * other.value);
+        return valueOf(value * other.value);
     }
 
     public Int32Element divide(Int32Element other) {
-        return new Int32Element(value / other.value);
+        return valueOf(value / other.value);
     }
 
     public Int32Element modulo(Int32Element other) {
-        return new Int32Element(value % other.value);
+        return valueOf(value % other.value);
     }
 
     public Int32Element succ() {
-        return new Int32Element(value + 1);
+        return valueOf(value + 1);
     }
 
     public Int32Element pred() {
-        return new Int32Element(value - 1);
+        return valueOf(value - 1);
     }
 
     public boolean isZero() {
@@ -0,0 +1,91 @@
+/*
+ * An IntStack is a BasicStack of Int32Elements, with ZERO as the
+ * default, whose cells are kept in an IntTapeStore: one int per cell.
+ * As well as the usual stack methods, it lets a language push, pop,
+ * peek and dup plain ints, which (so long as the depth of the stack
+ * stays in IntegerElement's cached range) allocates nothing.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public class IntStack extends BasicStack<Int32Element> {
+    public IntStack() {
+        super(Int32Element.ZERO);
+    }
+
+    public IntStack clone() {
+        IntStack c = new IntStack();
+        c.copyBackingStoreFrom(this);
+        c.head = this.head.clone();
+        c.head.setTape(c);
+        return c;
+    }
+
+    protected TapeStore<Int32Element> createStore() {
+        return new IntTapeStore();
+    }
+
+    private void writeInt(long pos, int v) {
+        int old = ((IntTapeStore)store).setInt(pos, v);
+        if (old != v) {
+            if (old != 0) {
+                hash ^= Zobrist.cell(pos, 0, old);
+            }
+            if (v != 0) {
+                hash ^= Zobrist.cell(pos, 0, v);
+            }
+            if (journal != null) {
+                journal.record(pos, 0);
+            }
+        }
+        extendBounds(pos);
+    }
+
+    public void pushInt(int v) {
+        long p = head.getPosLong();
+        writeInt(p, v);
+        head.setPos(p + 1);
+    }
+
+    /*
+     * Pops a value, or returns 0 if the stack is empty.
+     */
+    public int popInt() {
+        long p = head.getPosLong();
+        if (p == 0) {
+            return 0;
+        }
+        p--;
+        int v = ((IntTapeStore)store).getInt(p);
+        writeInt(p, 0);
+        head.setPos(p);
+        return v;
+    }
+
+    /*
+     * Returns the top value without popping it, or 0 if the stack is
+     * empty.
+     */
+    public int peekInt() {
+        long p = head.getPosLong();
+        return p == 0 ? 0 : ((IntTapeStore)store).getInt(p - 1);
+    }
+
+    /*
+     * Pops a value and pushes it twice, so an empty stack ends up
+     * holding two zeroes.
+     */
+    public void dup() {
+        int v = popInt();
+        pushInt(v);
+        pushInt(v);
+    }
+
+    public void push(Int32Element e) {
+        pushInt(e.getValue());
+    }
+
+    public Int32Element pop() {
+        return Int32Element.valueOf(popInt());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * An IntTapeStore is an AbstractArrayTapeStore for Int32Elements whose
+ * arrays are int arrays, one int per cell.  A zero means the cell is
+ * empty, so storing Int32Element.ZERO is the same as storing null; this
+ * is the right thing for a tape (or stack) whose default is ZERO.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.Arrays;
+
+public class IntTapeStore extends AbstractArrayTapeStore<Int32Element> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] pos = new int[INITIAL_CAPACITY];
+    private int[] neg = new int[INITIAL_CAPACITY];
+
+    public IntTapeStore() {
+        super(INITIAL_CAPACITY);
+    }
+
+    public IntTapeStore clone() {
+        IntTapeStore c = new IntTapeStore();
+        copyTo(c);
+        c.pos = pos.clone();
+        c.neg = neg.clone();
+        return c;
+    }
+
+    protected Int32Element normalize(Int32Element e) {
+        return (e == null || e.value == 0) ? null : e;
+    }
+
+    protected int capacity(boolean negative) {
+        return negative ? neg.length : pos.length;
+    }
+
+    protected void resize(boolean negative, int capacity) {
+        if (negative) {
+            neg = Arrays.copyOf(neg, capacity);
+        } else {
+            pos = Arrays.copyOf(pos, capacity);
+        }
+    }
+
+    protected Int32Element getCell(boolean negative, int i) {
+        int v = (negative ? neg : pos)[i];
+        return v == 0 ? null : Int32Element.valueOf(v);
+    }
+
+    protected Int32Element setCell(boolean negative, int i, Int32Element e) {
+        Int32Element old = getCell(negative, i);
+        (negative ? neg : pos)[i] = e == null ? 0 : e.value;
+        return old;
+    }
+
+    public void clear() {
+        super.clear();
+        pos = new int[INITIAL_CAPACITY];
+        neg = new int[INITIAL_CAPACITY];
+    }
+
+    public int getInt(long p) {
+        if (p >= 0 && p < pos.length) {
+            return pos[(int)p];
+        } else if (p < 0 && -1 - p < neg.length) {
+            return neg[(int)(-1 - p)];
+        }
+        Int32Element e = get(p);
+        return e == null ? 0 : e.value;
+    }
+
+    /*
+     * Set the value at the given position to v, returning its old value.
+     */
+    public int setInt(long p, int v) {
+        int[] a = p >= 0 ? pos : neg;
+        long i = p >= 0 ? p : -1 - p;
+        if (i >= a.length) {
+            Int32Element old = put(p, Int32Element.valueOf(v));
+            return old == null ? 0 : old.value;
+        }
+        int old = a[(int)i];
+        a[(int)i] = v;
+        if (old == 0 && v != 0) {
+            adjustCount(1);
+        } else if (old != 0 && v == 0) {
+            adjustCount(-1);
+        }
+        return old;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * An IntegerCodec is the Codec for IntegerElements.
+ *
+ * In binary, each value is written as its minimal big-endian two's
+ * complement representation, preceded by its length in bytes.  The
+ * length is a single byte, unless it is 255 or more, in which case it
+ * is the byte 255 followed by a four-byte int.  So values from -128 to
+ * 127 take two bytes, any long takes at most nine, and arbitrarily
+ * large values still round-trip.
+ *
+ * As characters, only the values 0 through 9 can be represented, as
+ * their decimal digits (which is how IntegerElement.fromChar() reads
+ * them.)
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+public class IntegerCodec implements Codec<IntegerElement> {
+    public char encodeChar(IntegerElement e) {
+        if (e.compareTo(0) < 0 || e.compareTo(9) > 0) {
+            throw new IllegalArgumentException("no character for " + e);
+        }
+        return (char)('0' + e.intValue());
+    }
+
+    public IntegerElement decodeChar(char c) {
+        return IntegerElement.ZERO.fromChar(c);
+    }
+
+    private static int longLength(long v) {
+        return (65 - Long.numberOfLeadingZeros(v ^ (v >> 63)) + 7) / 8;
+    }
+
+    private static int lengthSize(int n) {
+        return n < 255 ? 1 : 5;
+    }
+
+    public int encodedSize(IntegerElement e) {
+        int n = e.isLong() ? longLength(e.longValue()) : e.toBigInteger().toByteArray().length;
+        return lengthSize(n) + n;
+    }
+
+    private static void putLength(int n, ByteBuffer buf) {
+        if (n < 255) {
+            buf.put((byte)n);
+        } else {
+            buf.put((byte)255);
+            buf.putInt(n);
+        }
+    }
+
+    public void encode(IntegerElement e, ByteBuffer buf) {
+        if (e.isLong()) {
+            long v = e.longValue();
+            int n = longLength(v);
+            putLength(n, buf);
+            for (int shift = (n - 1) * 8; shift >= 0; shift -= 8) {
+                buf.put((byte)(v >> shift));
+            }
+        } else {
+            byte[] bytes = e.toBigInteger().toByteArray();
+            putLength(bytes.length, buf);
+            buf.put(bytes);
+        }
+    }
+
+    public IntegerElement decode(ByteBuffer buf) {
+        int n = buf.get() & 0xff;
+        if (n == 255) {
+            n = buf.getInt();
+        }
+        if (n <= 8) {
+            long v = buf.get(); // sign-extends the first byte
+            for (int i = 1; i < n; i++) {
+                v = (v << 8) | (buf.get() & 0xff);
+            }
+            return IntegerElement.valueOf(v);
+        }
+        byte[] bytes = new byte[n];
+        buf.get(bytes);
+        return IntegerElement.valueOf(new BigInteger(bytes));
+    }
+}
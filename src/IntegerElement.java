@@ -1,65 +1,240 @@
 /*
  * An IntegerElement is an unbounded integer that can be stored in
  * Playfields, Stacks, and Tapes.
+ *
+ * Nearly all the integers yoob deals with (positions, deltas, cell
+ * values) fit comfortably in a long, so that is how they are stored;
+ * only when a result would overflow a long is it promoted to a
+ * BigInteger.  Values that fit in a long are never held as BigIntegers,
+ * so each value has exactly one representation.
+ *
+ * Small values are interned: valueOf() and the arithmetic methods
+ * return canonical instances for values in the cached range (by
+ * default -4096..4096, adjustable with the system properties
+ * tc.catseye.yoob.IntegerElement.cacheLow and .cacheHigh), so
+ * stepping through coordinates near the origin does not produce
+ * garbage.  The constructors always create a new instance.  The bounds
+ * are clamped to -65536..65536, and if cacheLow is above cacheHigh
+ * the default range is used instead.
+ *
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
 
 import java.math.BigInteger;
 
-public class IntegerElement extends BigInteger implements Element {
-    public static IntegerElement ZERO = new IntegerElement(0);
-    public static IntegerElement ONE = new IntegerElement(1);
+public class IntegerElement extends Number implements Element, Comparable<IntegerElement> {
+    private static final int DEFAULT_CACHE_LOW = -4096;
+    private static final int DEFAULT_CACHE_HIGH = 4096;
+    private static final long MAX_CACHE_BOUND = 65536;
+    private static final int CACHE_LOW;
+    private static final int CACHE_HIGH;
+    private static final IntegerElement[] cache;
+
+    static {
+        long low = cacheBound("cacheLow", DEFAULT_CACHE_LOW);
+        long high = cacheBound("cacheHigh", DEFAULT_CACHE_HIGH);
+        if (low > high) {
+            System.err.println("IntegerElement: cacheLow " + low + " is above cacheHigh " + high +
+                               ", using the default cache range");
+            low = DEFAULT_CACHE_LOW;
+            high = DEFAULT_CACHE_HIGH;
+        }
+        CACHE_LOW = (int)Math.max(-MAX_CACHE_BOUND, Math.min(MAX_CACHE_BOUND, low));
+        CACHE_HIGH = (int)Math.max(-MAX_CACHE_BOUND, Math.min(MAX_CACHE_BOUND, high));
+        cache = new IntegerElement[(int)((long)CACHE_HIGH - CACHE_LOW + 1)];
+        for (int i = 0; i < cache.length; i++) {
+            cache[i] = new IntegerElement(CACHE_LOW + i);
+        }
+    }
+
+    public static final IntegerElement ZERO = valueOf(0);
+    public static final IntegerElement ONE = valueOf(1);
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private final long value;
+    private final BigInteger big; // null iff the value fits in a long
 
     public IntegerElement(int initial) {
-        super(new Integer(initial).toString());
+        this.value = initial;
+        this.big = null;
+    }
+
+    public IntegerElement(long initial) {
+        this.value = initial;
+        this.big = null;
     }
 
     public IntegerElement(BigInteger initial) {
-        super(initial.toString());
+        if (fitsInLong(initial)) {
+            this.value = initial.longValue();
+            this.big = null;
+        } else {
+            this.value = 0;
+            this.big = initial;
+        }
     }
 
+    /*
+     * Note that this interprets the character as a decimal digit,
+     * not as a character code.
+     */
     public IntegerElement(char c) {
-        super(new Character(c).toString());
+        int d = Character.digit(c, 10);
+        if (d < 0) {
+            throw new NumberFormatException("For input string: \"" + c + "\"");
+        }
+        this.value = d;
+        this.big = null;
     }
 
     public IntegerElement(String s) {
-        super(s);
+        this(new BigInteger(s));
+    }
+
+    private static long cacheBound(String name, long def) {
+        try {
+            return Long.getLong("tc.catseye.yoob.IntegerElement." + name, def).longValue();
+        } catch (SecurityException e) {
+            // e.g. when running as an applet
+            return def;
+        }
+    }
+
+    public static IntegerElement valueOf(long v) {
+        if (v >= CACHE_LOW && v <= CACHE_HIGH) {
+            return cache[(int)(v - CACHE_LOW)];
+        }
+        return new IntegerElement(v);
+    }
+
+    public static IntegerElement valueOf(BigInteger b) {
+        if (fitsInLong(b)) {
+            return valueOf(b.longValue());
+        }
+        return new IntegerElement(b);
+    }
+
+    private static boolean fitsInLong(BigInteger b) {
+        return b.compareTo(LONG_MIN) >= 0 && b.compareTo(LONG_MAX) <= 0;
+    }
+
+    /*
+     * Returns true iff this value is stored as a primitive long, i.e.
+     * iff longValue() returns it exactly.
+     */
+    public boolean isLong() {
+        return big == null;
+    }
+
+    public BigInteger toBigInteger() {
+        return big == null ? BigInteger.valueOf(value) : big;
     }
 
     public String getName() {
         return toString();
     }
 
+    public String toString() {
+        return big == null ? Long.toString(value) : big.toString();
+    }
+
     public boolean equals(Element e) {
-        if (e instanceof BigInteger) {
-            return super.equals(e);
+        if (e instanceof IntegerElement) {
+            return compareTo((IntegerElement)e) == 0;
         }
         return false;
     }
 
+    public boolean equals(Object o) {
+        if (o instanceof IntegerElement) {
+            return compareTo((IntegerElement)o) == 0;
+        }
+        return false;
+    }
+
+    public int hashCode() {
+        return big == null ? (int)(value ^ (value >>> 32)) : big.hashCode();
+    }
+
     public IntegerElement fromChar(char c) {
-        return new IntegerElement(c);
+        return valueOf(new IntegerElement(c).longValue());
+    }
+
+    public int intValue() {
+        return big == null ? (int)value : big.intValue();
+    }
+
+    public long longValue() {
+        return big == null ? value : big.longValue();
+    }
+
+    public float floatValue() {
+        return big == null ? (float)value : big.floatValue();
+    }
+
+    public double doubleValue() {
+        return big == null ? (double)value : big.doubleValue();
+    }
+
+    public int signum() {
+        return big == null ? Long.signum(value) : big.signum();
     }
 
     public IntegerElement negate() {
-        return new IntegerElement(super.negate());
+        if (big == null && value != Long.MIN_VALUE) {
+            return valueOf(-value);
+        }
+        return valueOf(toBigInteger().negate());
     }
 
     public IntegerElement add(IntegerElement o) {
-        return new IntegerElement(super.add(o));
+        if (big == null && o.big == null) {
+            long r = value + o.value;
+            // overflow iff both operands have the sign opposite to the result
+            if (((value ^ r) & (o.value ^ r)) >= 0) {
+                return valueOf(r);
+            }
+        }
+        return valueOf(toBigInteger().add(o.toBigInteger()));
     }
 
     public IntegerElement subtract(IntegerElement o) {
-        return new IntegerElement(super.subtract(o));
+        if (big == null && o.big == null) {
+            long r = value - o.value;
+            // overflow iff the operands differ in sign and the result's sign differs from ours
+            if (((value ^ o.value) & (value ^ r)) >= 0) {
+                return valueOf(r);
+            }
+        }
+        return valueOf(toBigInteger().subtract(o.toBigInteger()));
     }
 
     public IntegerElement multiply(IntegerElement o) {
-        return new IntegerElement(super.multiply(o));
+        if (big == null && o.big == null) {
+            long r = value * o.value;
+            long ax = Math.abs(value);
+            long ay = Math.abs(o.value);
+            if (((ax | ay) >>> 31 == 0) ||
+                ((o.value == 0 || r / o.value == value) &&
+                 !(value == Long.MIN_VALUE && o.value == -1))) {
+                return valueOf(r);
+            }
+        }
+        return valueOf(toBigInteger().multiply(o.toBigInteger()));
     }
 
     public IntegerElement divide(IntegerElement o) {
-        return new IntegerElement(super.divide(o));
+        if (big == null && o.big == null &&
+            !(value == Long.MIN_VALUE && o.value == -1)) {
+            if (o.value == 0) {
+                throw new ArithmeticException("BigInteger divide by zero");
+            }
+            return valueOf(value / o.value);
+        }
+        return valueOf(toBigInteger().divide(o.toBigInteger()));
     }
 
     public IntegerElement succ() {
@@ -69,12 +244,22 @@ public class IntegerElement extends BigInteger implements Element {
     public IntegerElement pred() {
         return subtract(ONE);
     }
-  
-    public int compareTo(int other) {
-        return compareTo(new IntegerElement(other));
+
+    public int compareTo(IntegerElement o) {
+        if (big == null && o.big == null) {
+            return value < o.value ? -1 : (value == o.value ? 0 : 1);
+        }
+        return toBigInteger().compareTo(o.toBigInteger());
+    }
+
+    public int compareTo(long other) {
+        if (big == null) {
+            return value < other ? -1 : (value == other ? 0 : 1);
+        }
+        return big.signum();
     }
 
     public boolean isZero() {
-        return compareTo(ZERO) == 0;
+        return big == null && value == 0;
     }
 }
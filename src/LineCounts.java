@@ -0,0 +1,233 @@
+/*
+ * A LineCounts keeps a count for each occupied row (or column) of a
+ * playfield: the number of stored cells on that line.  A line with no
+ * cells has no entry.
+ *
+ * Lines whose coordinate fits in a long are kept in an open-addressing
+ * table (linear probing, backward-shift deletion, as in PositionMap), so
+ * counting a cell in or out allocates nothing.  Lines beyond that range
+ * go in an ordinary HashMap, which is only created if one is ever used.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.HashMap;
+
+public class LineCounts {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] counts; // 0 marks an empty slot
+    private int size;
+    private int mask;
+    private HashMap<IntegerElement, Integer> overflow = null;
+
+    public LineCounts() {
+        keys = new long[INITIAL_CAPACITY];
+        counts = new int[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        size = 0;
+    }
+
+    public LineCounts clone() {
+        LineCounts c = new LineCounts();
+        c.keys = keys.clone();
+        c.counts = counts.clone();
+        c.mask = mask;
+        c.size = size;
+        if (overflow != null) {
+            c.overflow = new HashMap<IntegerElement, Integer>(overflow);
+        }
+        return c;
+    }
+
+    private int slotFor(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32)) & mask;
+    }
+
+    private int find(long key) {
+        int i = slotFor(key);
+        while (counts[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /*
+     * The number of occupied lines.
+     */
+    public int size() {
+        return size + (overflow == null ? 0 : overflow.size());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(long line) {
+        return find(line) >= 0;
+    }
+
+    public boolean contains(IntegerElement line) {
+        if (line.isLong()) {
+            return contains(line.longValue());
+        }
+        return overflow != null && overflow.containsKey(line);
+    }
+
+    public void increment(long line) {
+        int i = slotFor(line);
+        while (counts[i] != 0) {
+            if (keys[i] == line) {
+                counts[i]++;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = line;
+        counts[i] = 1;
+        size++;
+        if (size * 3 > counts.length * 2) {
+            grow();
+        }
+    }
+
+    public void increment(IntegerElement line) {
+        if (line.isLong()) {
+            increment(line.longValue());
+            return;
+        }
+        if (overflow == null) {
+            overflow = new HashMap<IntegerElement, Integer>();
+        }
+        Integer n = overflow.get(line);
+        overflow.put(line, n == null ? 1 : n + 1);
+    }
+
+    /*
+     * Count one cell out of the given line, which must be occupied.
+     * Returns true if that leaves the line empty.
+     */
+    public boolean decrement(long line) {
+        int i = find(line);
+        if (counts[i] > 1) {
+            counts[i]--;
+            return false;
+        }
+        deleteSlot(i);
+        return true;
+    }
+
+    public boolean decrement(IntegerElement line) {
+        if (line.isLong()) {
+            return decrement(line.longValue());
+        }
+        int n = overflow.get(line);
+        if (n > 1) {
+            overflow.put(line, n - 1);
+            return false;
+        }
+        overflow.remove(line);
+        return true;
+    }
+
+    private void deleteSlot(int i) {
+        int j = i;
+        for (;;) {
+            j = (j + 1) & mask;
+            if (counts[j] == 0) {
+                break;
+            }
+            int k = slotFor(keys[j]);
+            // the entry at j may only move back to i if its home slot
+            // does not lie cyclically in (i, j]
+            boolean stays = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+            if (!stays) {
+                keys[i] = keys[j];
+                counts[i] = counts[j];
+                i = j;
+            }
+        }
+        counts[i] = 0;
+        size--;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        int capacity = oldCounts.length * 2;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+        for (int j = 0; j < oldCounts.length; j++) {
+            if (oldCounts[j] != 0) {
+                int i = slotFor(oldKeys[j]);
+                while (counts[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                counts[i] = oldCounts[j];
+            }
+        }
+    }
+
+    /*
+     * Find the occupied line nearest to 'from' going towards 'to', which
+     * must itself be occupied.  Steps through the gap if it is small,
+     * otherwise looks at every occupied line, so this costs no more than
+     * the smaller of the two.
+     */
+    public long nearest(long from, long to) {
+        boolean up = from < to;
+        // the gap is never negative, so this is right even if it overflows
+        long gap = up ? to - from : from - to;
+        if (Long.compareUnsigned(gap, size) <= 0) {
+            long i = from;
+            do {
+                i = up ? i + 1 : i - 1;
+            } while (!contains(i));
+            return i;
+        }
+        long best = to;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0 && (up ? keys[i] < best : keys[i] > best)) {
+                best = keys[i];
+            }
+        }
+        return best;
+    }
+
+    public IntegerElement nearest(IntegerElement from, IntegerElement to) {
+        if (overflow == null && from.isLong() && to.isLong()) {
+            return IntegerElement.valueOf(nearest(from.longValue(), to.longValue()));
+        }
+        boolean up = from.compareTo(to) < 0;
+        IntegerElement gap = up ? to.subtract(from) : from.subtract(to);
+        if (gap.compareTo(size()) <= 0) {
+            IntegerElement i = from;
+            do {
+                i = up ? i.succ() : i.pred();
+            } while (!contains(i));
+            return i;
+        }
+        IntegerElement best = to;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0 && (up ? best.compareTo(keys[i]) > 0 : best.compareTo(keys[i]) < 0)) {
+                best = IntegerElement.valueOf(keys[i]);
+            }
+        }
+        if (overflow != null) {
+            for (IntegerElement k : overflow.keySet()) {
+                if (up ? k.compareTo(best) < 0 : k.compareTo(best) > 0) {
+                    best = k;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * A MappedPlayfield is a BasicPlayfield kept in a memory-mapped file by
+ * way of a MappedTileMap.  Only the file's tile directory and the row
+ * and column counts are held on the heap, so it can hold playfields
+ * larger than memory, and they survive being closed and reopened.
+ *
+ * Opening an existing file only reads the tile headers and the tiles on
+ * the edges of the bounds; the rows and columns are not counted until a
+ * cell on an edge is erased.  Any playfield that can be given a store
+ * (such as TiledPlayfield, CommonPlayfield and CellularAutomatonPlayfield)
+ * can be given a MappedTileMap in the same way; this class just wraps it
+ * up.  Like the MappedTileMap itself, it cannot be cloned, but it can be
+ * copied to another file with copyTo().
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.io.File;
+import java.io.IOException;
+
+public class MappedPlayfield<E extends Element> extends BasicPlayfield<E> {
+    public MappedPlayfield(E def, MappedTileMap<E> store) {
+        super(def, store);
+    }
+
+    /*
+     * Open the given file as a playfield, creating it if need be.  width
+     * is the number of bytes needed to encode any element that will be
+     * stored in it.
+     */
+    public static <E extends Element> MappedPlayfield<E> open(File file, Codec<E> codec, int width, E def) throws IOException {
+        return new MappedPlayfield<E>(def, new MappedTileMap<E>(file, codec, width));
+    }
+
+    /*
+     * Always throws UnsupportedOperationException, for the reasons given
+     * at MappedTileMap.clone().
+     */
+    public MappedPlayfield<E> clone() {
+        throw new UnsupportedOperationException("a MappedPlayfield cannot be cloned; use copyTo()");
+    }
+
+    /*
+     * Copy this playfield to the given file, and open the copy.  The
+     * caller must close() it.
+     */
+    public MappedPlayfield<E> copyTo(File file) throws IOException {
+        return new MappedPlayfield<E>(getDefault(), getStore().copyTo(file));
+    }
+
+    public MappedTileMap<E> getStore() {
+        return (MappedTileMap<E>)store;
+    }
+
+    public void flush() {
+        getStore().flush();
+    }
+
+    public void close() throws IOException {
+        getStore().close();
+    }
+}
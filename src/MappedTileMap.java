@@ -0,0 +1,532 @@
+/*
+ * A MappedTileMap is a PlayfieldStore kept in a memory-mapped file, so a
+ * playfield backed by one can be much larger than the heap, and can be
+ * reopened later.  Elements are stored as fixed-width codes, written and
+ * read with a Codec.
+ *
+ * The file starts with a HEADER_SIZE-byte header: a magic number, the
+ * code width, the number of tiles and of occupied cells, and the Zobrist
+ * hash of the cells.  After that come the tiles, in the order they were
+ * created.  Each tile is TILE_SIZE x TILE_SIZE cells, preceded by its
+ * tile coordinates and the number of its cells that are occupied; each
+ * cell is a byte saying whether it is occupied, then the code.
+ *
+ * The file is mapped TILES_PER_CHUNK tiles at a time, as tiles are
+ * needed.  Only the tile directory (one entry per tile) lives on the
+ * heap; it is rebuilt from the tile headers when a file is opened.
+ * Tiles are never removed from the file, only emptied.  The hash and the
+ * per-tile counts are kept up to date by put(), so that a playfield can
+ * be reopened over the file without reading every cell: see getHash()
+ * and findBounds().  The hash is only good across runs for elements
+ * whose hashCode() is, such as CharacterElement.
+ *
+ * Positions whose coordinates do not fit in a long are kept on the heap
+ * in a PositionMap, and are not saved in the file.
+ *
+ * A MappedTileMap cannot be cloned; see clone().
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public class MappedTileMap<E extends Element> implements PlayfieldStore<E> {
+    public static final int TILE_SHIFT = 6;
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int TILES_PER_CHUNK = 256;
+
+    private static final long MAGIC = 0x594F4F424D504632L; // "YOOBMPF2"
+    private static final int TILE_HEADER_SIZE = 24;
+    // offset of the count of occupied cells in a tile's header
+    private static final int T_CELLS = 16;
+
+    // offsets of the fields in the header
+    private static final int H_MAGIC = 0;
+    private static final int H_WIDTH = 8;
+    private static final int H_TILES = 12;
+    private static final int H_CELLS = 16;
+    private static final int H_HASH = 24;
+
+    private final File file;
+    private final FileChannel channel;
+    private final Codec<E> codec;
+    private final int width;
+    private final int cellSize;
+    private final int tileSize;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> chunks = new ArrayList<MappedByteBuffer>();
+
+    // tile coordinates -> index of the tile in the file
+    private PositionMap<Integer> directory = new PositionMap<Integer>();
+    private long[] tileXs = new long[16];
+    private long[] tileYs = new long[16];
+    private int numTiles;
+    private long lastTx, lastTy;
+    private int lastTile = -1;
+
+    private PositionMap<E> overflow = null;
+
+    /*
+     * Open the given file, creating it if it is empty.  width is the
+     * number of bytes set aside for each element's code; it must match
+     * the width the file was created with.
+     */
+    public MappedTileMap(File file, Codec<E> codec, int width) throws IOException {
+        this.file = file;
+        this.codec = codec;
+        this.width = width;
+        this.cellSize = 1 + width;
+        this.tileSize = TILE_HEADER_SIZE + TILE_SIZE * TILE_SIZE * cellSize;
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        boolean existing = channel.size() >= HEADER_SIZE;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (existing) {
+            if (header.getLong(H_MAGIC) != MAGIC) {
+                channel.close();
+                throw new IOException(file + " is not a mapped playfield");
+            }
+            if (header.getInt(H_WIDTH) != width) {
+                channel.close();
+                throw new IOException(file + " has codes of width " + header.getInt(H_WIDTH) + ", not " + width);
+            }
+            int n = header.getInt(H_TILES);
+            for (int i = 0; i < n; i++) {
+                MappedByteBuffer buf = chunkFor(i);
+                int base = offsetOf(i);
+                addToDirectory(buf.getLong(base), buf.getLong(base + 8));
+            }
+        } else {
+            header.putLong(H_MAGIC, MAGIC);
+            header.putInt(H_WIDTH, width);
+            resetHeader();
+        }
+    }
+
+    private void resetHeader() {
+        header.putInt(H_TILES, 0);
+        header.putLong(H_CELLS, 0);
+        header.putLong(H_HASH, 0);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /*
+     * The XOR of the Zobrist keys of the cells in the file, as a
+     * BasicPlayfield would compute it.
+     */
+    public long getHash() {
+        return header.getLong(H_HASH);
+    }
+
+    /*
+     * The bounding box of the cells in the file, as {minX, minY, maxX,
+     * maxY}, or null if there are none.  Only the tile headers are read,
+     * and then the cells of the tiles on the edges of the box.
+     */
+    public long[] findBounds() {
+        long tx0 = Long.MAX_VALUE, ty0 = Long.MAX_VALUE;
+        long tx1 = Long.MIN_VALUE, ty1 = Long.MIN_VALUE;
+        for (int i = 0; i < numTiles; i++) {
+            if (cellsIn(i) > 0) {
+                tx0 = Math.min(tx0, tileXs[i]);
+                ty0 = Math.min(ty0, tileYs[i]);
+                tx1 = Math.max(tx1, tileXs[i]);
+                ty1 = Math.max(ty1, tileYs[i]);
+            }
+        }
+        if (tx0 > tx1) {
+            return null;
+        }
+        long[] bounds = {Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE};
+        for (int i = 0; i < numTiles; i++) {
+            if (cellsIn(i) == 0 || (tileXs[i] != tx0 && tileXs[i] != tx1 && tileYs[i] != ty0 && tileYs[i] != ty1)) {
+                continue;
+            }
+            MappedByteBuffer buf = chunkFor(i);
+            int base = offsetOf(i) + TILE_HEADER_SIZE;
+            for (int c = 0; c < TILE_SIZE * TILE_SIZE; c++) {
+                if (buf.get(base + c * cellSize) != 0) {
+                    long x = (tileXs[i] << TILE_SHIFT) + (c & TILE_MASK);
+                    long y = (tileYs[i] << TILE_SHIFT) + (c >> TILE_SHIFT);
+                    bounds[0] = Math.min(bounds[0], x);
+                    bounds[1] = Math.min(bounds[1], y);
+                    bounds[2] = Math.max(bounds[2], x);
+                    bounds[3] = Math.max(bounds[3], y);
+                }
+            }
+        }
+        return bounds;
+    }
+
+    /*
+     * The cells which are not saved in the file.
+     */
+    Iterable<Map.Entry<Position, E>> overflowCells() {
+        if (overflow == null) {
+            return Collections.<Map.Entry<Position, E>>emptyList();
+        }
+        return overflow;
+    }
+
+    /*
+     * Write any changes out to the file.
+     */
+    public void flush() {
+        header.force();
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private MappedByteBuffer chunkFor(int tile) {
+        int c = tile / TILES_PER_CHUNK;
+        try {
+            while (chunks.size() <= c) {
+                long start = HEADER_SIZE + (long)chunks.size() * TILES_PER_CHUNK * tileSize;
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, start, (long)TILES_PER_CHUNK * tileSize));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunks.get(c);
+    }
+
+    private int offsetOf(int tile) {
+        return (tile % TILES_PER_CHUNK) * tileSize;
+    }
+
+    private int cellsIn(int tile) {
+        return chunkFor(tile).getInt(offsetOf(tile) + T_CELLS);
+    }
+
+    private void addCells(int tile, int n) {
+        chunkFor(tile).putInt(offsetOf(tile) + T_CELLS, cellsIn(tile) + n);
+        header.putLong(H_CELLS, header.getLong(H_CELLS) + n);
+    }
+
+    private void addToDirectory(long tx, long ty) {
+        if (numTiles == tileXs.length) {
+            tileXs = Arrays.copyOf(tileXs, numTiles * 2);
+            tileYs = Arrays.copyOf(tileYs, numTiles * 2);
+        }
+        tileXs[numTiles] = tx;
+        tileYs[numTiles] = ty;
+        directory.put(tx, ty, numTiles);
+        numTiles++;
+    }
+
+    private int findTile(long tx, long ty) {
+        if (lastTile >= 0 && lastTx == tx && lastTy == ty) {
+            return lastTile;
+        }
+        Integer i = directory.get(tx, ty);
+        if (i == null) {
+            return -1;
+        }
+        lastTx = tx;
+        lastTy = ty;
+        lastTile = i;
+        return lastTile;
+    }
+
+    private int createTile(long tx, long ty) {
+        int i = numTiles;
+        MappedByteBuffer buf = chunkFor(i);
+        int base = offsetOf(i);
+        // the space may hold an old tile from before a clear()
+        for (int j = 0; j < tileSize; j++) {
+            buf.put(base + j, (byte)0);
+        }
+        buf.putLong(base, tx);
+        buf.putLong(base + 8, ty);
+        addToDirectory(tx, ty);
+        header.putInt(H_TILES, numTiles);
+        return i;
+    }
+
+    private int cellOffset(int tile, long x, long y) {
+        return offsetOf(tile) + TILE_HEADER_SIZE + ((((int)y & TILE_MASK) << TILE_SHIFT) + ((int)x & TILE_MASK)) * cellSize;
+    }
+
+    private E decodeAt(MappedByteBuffer buf, int offset) {
+        buf.position(offset + 1);
+        return codec.decode(buf);
+    }
+
+    public int size() {
+        long n = header.getLong(H_CELLS) + (overflow == null ? 0 : overflow.size());
+        return n > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)n;
+    }
+
+    public void clear() {
+        directory = new PositionMap<Integer>();
+        numTiles = 0;
+        lastTile = -1;
+        overflow = null;
+        resetHeader();
+    }
+
+    public E get(long x, long y) {
+        int tile = findTile(x >> TILE_SHIFT, y >> TILE_SHIFT);
+        if (tile < 0) {
+            return null;
+        }
+        MappedByteBuffer buf = chunkFor(tile);
+        int offset = cellOffset(tile, x, y);
+        return buf.get(offset) == 0 ? null : decodeAt(buf, offset);
+    }
+
+    public E get(IntegerElement x, IntegerElement y) {
+        if (x.isLong() && y.isLong()) {
+            return get(x.longValue(), y.longValue());
+        }
+        return overflow == null ? null : overflow.get(x, y);
+    }
+
+    public E put(long x, long y, E e) {
+        long tx = x >> TILE_SHIFT;
+        long ty = y >> TILE_SHIFT;
+        int tile = findTile(tx, ty);
+        if (tile < 0) {
+            if (e == null) {
+                return null;
+            }
+            tile = createTile(tx, ty);
+        }
+        MappedByteBuffer buf = chunkFor(tile);
+        int offset = cellOffset(tile, x, y);
+        E old = buf.get(offset) == 0 ? null : decodeAt(buf, offset);
+        if (e == null) {
+            if (old != null) {
+                buf.put(offset, (byte)0);
+                addCells(tile, -1);
+                header.putLong(H_HASH, getHash() ^ Zobrist.cell(x, y, old));
+            }
+            return old;
+        }
+        if (codec.encodedSize(e) > width) {
+            throw new IllegalArgumentException(e.getName() + " does not fit in " + width + " bytes");
+        }
+        buf.put(offset, (byte)1);
+        buf.position(offset + 1);
+        codec.encode(e, buf);
+        long h = getHash() ^ Zobrist.cell(x, y, e);
+        if (old == null) {
+            addCells(tile, 1);
+        } else {
+            h ^= Zobrist.cell(x, y, old);
+        }
+        header.putLong(H_HASH, h);
+        return old;
+    }
+
+    public E put(IntegerElement x, IntegerElement y, E e) {
+        if (x.isLong() && y.isLong()) {
+            return put(x.longValue(), y.longValue(), e);
+        }
+        if (overflow == null) {
+            if (e == null) {
+                return null;
+            }
+            overflow = new PositionMap<E>();
+        }
+        return overflow.put(x, y, e);
+    }
+
+    /*
+     * Always throws UnsupportedOperationException.  A clone would have to
+     * be copy-on-write over this map's file, but a private mapping of the
+     * file would still see what this map writes to it later; and a full
+     * copy would be a whole new file, with a file handle, that nothing
+     * (State.clone() included) would ever close.  Use copyTo() to make a
+     * copy on purpose.
+     */
+    public MappedTileMap<E> clone() {
+        throw new UnsupportedOperationException("a MappedTileMap cannot be cloned; use copyTo()");
+    }
+
+    /*
+     * Copy this map to the given file, and open the copy.  The caller
+     * must close() it.
+     */
+    public MappedTileMap<E> copyTo(File copy) throws IOException {
+        flush();
+        FileChannel out = new RandomAccessFile(copy, "rw").getChannel();
+        try {
+            long length = HEADER_SIZE + (long)numTiles * tileSize;
+            long done = 0;
+            while (done < length) {
+                done += channel.transferTo(done, length - done, out);
+            }
+        } finally {
+            out.close();
+        }
+        MappedTileMap<E> c = new MappedTileMap<E>(copy, codec, width);
+        if (overflow != null) {
+            c.overflow = overflow.clone();
+        }
+        return c;
+    }
+
+    public void forEachCell(long minX, long minY, long maxX, long maxY, CellVisitor<E> v) {
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+        long tx0 = minX >> TILE_SHIFT, ty0 = minY >> TILE_SHIFT;
+        long tx1 = maxX >> TILE_SHIFT, ty1 = maxY >> TILE_SHIFT;
+        if (PositionMap.areaAtMost(tx0, ty0, tx1, ty1, numTiles)) {
+            // look the tiles up a row of tiles at a time
+            int[] row = new int[(int)(tx1 - tx0 + 1)];
+            for (long ty = ty0; ty <= ty1; ty++) {
+                int n = 0;
+                for (long tx = tx0; tx <= tx1; tx++) {
+                    Integer i = directory.get(tx, ty);
+                    if (i != null && cellsIn(i) > 0) {
+                        row[n++] = i;
+                    }
+                }
+                visitTileRow(row, 0, n, minX, minY, maxX, maxY, v);
+            }
+            return;
+        }
+        // otherwise sort the tiles in the area (not their cells) by their
+        // tile coordinates, into row-major order
+        Integer[] found = new Integer[numTiles];
+        int n = 0;
+        for (int i = 0; i < numTiles; i++) {
+            if (tileXs[i] >= tx0 && tileXs[i] <= tx1 && tileYs[i] >= ty0 && tileYs[i] <= ty1 && cellsIn(i) > 0) {
+                found[n++] = i;
+            }
+        }
+        Arrays.sort(found, 0, n, new Comparator<Integer>() {
+            public int compare(Integer a, Integer b) {
+                int c = Long.compare(tileYs[a], tileYs[b]);
+                return c != 0 ? c : Long.compare(tileXs[a], tileXs[b]);
+            }
+        });
+        int[] row = new int[n];
+        int start = 0;
+        while (start < n) {
+            int end = start;
+            long ty = tileYs[found[start]];
+            while (end < n && tileYs[found[end]] == ty) {
+                row[end - start] = found[end];
+                end++;
+            }
+            visitTileRow(row, 0, end - start, minX, minY, maxX, maxY, v);
+            start = end;
+        }
+    }
+
+    // visit the cells in the area of the given tiles, which are in one row
+    // of tiles and sorted by x
+    private void visitTileRow(int[] row, int start, int end, long minX, long minY, long maxX, long maxY, CellVisitor<E> v) {
+        if (start == end) {
+            return;
+        }
+        long baseY = tileYs[row[start]] << TILE_SHIFT;
+        int ly0 = (int)(Math.max(baseY, minY) - baseY);
+        int ly1 = (int)(Math.min(baseY + TILE_MASK, maxY) - baseY);
+        for (int ly = ly0; ly <= ly1; ly++) {
+            for (int k = start; k < end; k++) {
+                int tile = row[k];
+                MappedByteBuffer buf = chunkFor(tile);
+                long baseX = tileXs[tile] << TILE_SHIFT;
+                int lx0 = (int)(Math.max(baseX, minX) - baseX);
+                int lx1 = (int)(Math.min(baseX + TILE_MASK, maxX) - baseX);
+                for (int lx = lx0; lx <= lx1; lx++) {
+                    int offset = cellOffset(tile, baseX + lx, baseY + ly);
+                    if (buf.get(offset) != 0) {
+                        v.visit(baseX + lx, baseY + ly, decodeAt(buf, offset));
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Iterates over the tiles in the order they are in the file, reading
+     * each tile's cells as it comes to them, then over any positions that
+     * do not fit in a long.
+     */
+    public Iterator<Map.Entry<Position, E>> iterator() {
+        return new Iterator<Map.Entry<Position, E>>() {
+            // the next cell to look at
+            private int tile = 0;
+            private int cell = 0;
+            private Iterator<Map.Entry<Position, E>> rest = null;
+
+            // move on to the next occupied cell in the file, if any
+            private boolean findCell() {
+                while (tile < numTiles) {
+                    if (cell == 0 && cellsIn(tile) == 0) {
+                        tile++;
+                        continue;
+                    }
+                    MappedByteBuffer buf = chunkFor(tile);
+                    int base = offsetOf(tile) + TILE_HEADER_SIZE;
+                    for (; cell < TILE_SIZE * TILE_SIZE; cell++) {
+                        if (buf.get(base + cell * cellSize) != 0) {
+                            return true;
+                        }
+                    }
+                    tile++;
+                    cell = 0;
+                }
+                return false;
+            }
+
+            public boolean hasNext() {
+                if (findCell()) {
+                    return true;
+                }
+                if (rest == null) {
+                    rest = overflowCells().iterator();
+                }
+                return rest.hasNext();
+            }
+
+            public Map.Entry<Position, E> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (rest != null) {
+                    return rest.next();
+                }
+                long x = (tileXs[tile] << TILE_SHIFT) + (cell & TILE_MASK);
+                long y = (tileYs[tile] << TILE_SHIFT) + (cell >> TILE_SHIFT);
+                E e = decodeAt(chunkFor(tile), offsetOf(tile) + TILE_HEADER_SIZE + cell * cellSize);
+                cell++;
+                return new AbstractMap.SimpleImmutableEntry<Position, E>(new Position(x, y), e);
+            }
+        };
+    }
+}
@@ -6,19 +6,31 @@
  * is fixed.  Attempts to access outside the bounds will return
  * the default element always.
  *
+ * When the offset and extent all fit in a long (which they nearly
+ * always do), they are also kept as longs, and cells are looked up
+ * through the underlying playfield's primitive-coordinate methods,
+ * so reading through an overlay allocates nothing.
+ *
  * The source code in this file has been placed into the public domain.
  */
 package tc.catseye.yoob;
 
+import java.util.Arrays;
+
 public class OverlayPlayfield<E extends Element> implements Playfield<E> {
     private Playfield<E> p;
     private IntegerElement offsetX = IntegerElement.ZERO;
     private IntegerElement offsetY = IntegerElement.ZERO;
     private IntegerElement width = IntegerElement.ZERO;
     private IntegerElement height = IntegerElement.ZERO;
+    private IntegerElement maxX, maxY;
+    // the above as longs, if small is true
+    private boolean small;
+    private long ox, oy, w, h;
 
     public OverlayPlayfield(Playfield<E> p) {
         this.p = p;
+        recache();
     }
 
     public OverlayPlayfield(Playfield<E> p, IntegerElement x, IntegerElement y, IntegerElement width, IntegerElement height) {
@@ -27,6 +39,23 @@ public class OverlayPlayfield<E extends Element> implements Playfield<E> {
         this.offsetY = y;
         this.width = width;
         this.height = height;
+        recache();
+    }
+
+    private void recache() {
+        maxX = width.subtract(IntegerElement.ONE);
+        maxY = height.subtract(IntegerElement.ONE);
+        small = offsetX.isLong() && offsetY.isLong() && width.isLong() && height.isLong();
+        if (small) {
+            ox = offsetX.longValue();
+            oy = offsetY.longValue();
+            w = width.longValue();
+            h = height.longValue();
+            // every cell inside must have long coordinates underneath too
+            small = w >= 0 && h >= 0 &&
+                    (ox <= 0 || w <= Long.MAX_VALUE - ox) &&
+                    (oy <= 0 || h <= Long.MAX_VALUE - oy);
+        }
     }
 
     public void setPlayfield(Playfield<E> p) {
@@ -35,18 +64,22 @@ public class OverlayPlayfield<E extends Element> implements Playfield<E> {
 
     public void setOffsetX(IntegerElement x) {
         this.offsetX = x;
+        recache();
     }
 
     public void setOffsetY(IntegerElement y) {
         this.offsetY = y;
+        recache();
     }
 
     public void setWidth(IntegerElement width) {
         this.width = width;
+        recache();
     }
 
     public void setHeight(IntegerElement height) {
         this.height = height;
+        recache();
     }
 
     public Playfield<E> getPlayfield() {
@@ -70,6 +103,10 @@ public class OverlayPlayfield<E extends Element> implements Playfield<E> {
     }
 
     public void set(IntegerElement x, IntegerElement y, E e) {
+        if (small && x.isLong() && y.isLong()) {
+            set(x.longValue(), y.longValue(), e);
+            return;
+        }
         if (x.compareTo(IntegerElement.ZERO) < 0 ||
             x.compareTo(width) >= 0 ||
             y.compareTo(IntegerElement.ZERO) < 0 ||
@@ -80,6 +117,9 @@ public class OverlayPlayfield<E extends Element> implements Playfield<E> {
     }
 
     public E get(IntegerElement x, IntegerElement y) {
+        if (small && x.isLong() && y.isLong()) {
+            return get(x.longValue(), y.longValue());
+        }
         if (x.compareTo(IntegerElement.ZERO) < 0 ||
             x.compareTo(width) >= 0 ||
             y.compareTo(IntegerElement.ZERO) < 0 ||
@@ -89,6 +129,77 @@ public class OverlayPlayfield<E extends Element> implements Playfield<E> {
         return p.get(x.add(offsetX), y.add(offsetY));
     }
 
+    public void set(long x, long y, E e) {
+        if (!small) {
+            set(IntegerElement.valueOf(x), IntegerElement.valueOf(y), e);
+            return;
+        }
+        if (x < 0 || x >= w || y < 0 || y >= h) {
+            return;
+        }
+        p.set(x + ox, y + oy, e);
+    }
+
+    public E get(long x, long y) {
+        if (!small) {
+            return get(IntegerElement.valueOf(x), IntegerElement.valueOf(y));
+        }
+        if (x < 0 || x >= w || y < 0 || y >= h) {
+            return p.getDefault();
+        }
+        return p.get(x + ox, y + oy);
+    }
+
+    /*
+     * Read row y of the overlay into the start of the array, returning
+     * the number of cells read: the width of the overlay, or the length
+     * of the array if that is less.  Only the cells the underlying
+     * playfield has stored are looked at, apart from filling in the
+     * default element first.
+     */
+    public int readRow(long y, final E[] row) {
+        if (!small) {
+            int n = (int)Math.min(row.length, Math.max(width.longValue(), 0));
+            for (int i = 0; i < n; i++) {
+                row[i] = get(IntegerElement.valueOf(i), IntegerElement.valueOf(y));
+            }
+            return n;
+        }
+        int n = (int)Math.min(row.length, w);
+        Arrays.fill(row, 0, n, p.getDefault());
+        if (n > 0 && y >= 0 && y < h) {
+            p.forEachCell(ox, oy + y, ox + n - 1, oy + y, new CellVisitor<E>() {
+                public void visit(long cx, long cy, E e) {
+                    row[(int)(cx - ox)] = e;
+                }
+            });
+        }
+        return n;
+    }
+
+    /*
+     * Delegates to the underlying playfield's forEachCell(), clipped to
+     * the overlay.
+     */
+    public void forEachCell(long minX, long minY, long maxX, long maxY, final CellVisitor<E> v) {
+        if (!small) {
+            Playfield.super.forEachCell(minX, minY, maxX, maxY, v);
+            return;
+        }
+        minX = Math.max(minX, 0);
+        minY = Math.max(minY, 0);
+        maxX = Math.min(maxX, w - 1);
+        maxY = Math.min(maxY, h - 1);
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+        p.forEachCell(minX + ox, minY + oy, maxX + ox, maxY + oy, new CellVisitor<E>() {
+            public void visit(long cx, long cy, E e) {
+                v.visit(cx - ox, cy - oy, e);
+            }
+        });
+    }
+
     public E getDefault() {
         return p.getDefault();
     }
@@ -113,11 +224,11 @@ public class OverlayPlayfield<E extends Element> implements Playfield<E> {
     }
 
     public IntegerElement getMaxX() {
-        return width.subtract(IntegerElement.ONE);
+        return maxX;
     }
 
     public IntegerElement getMaxY() {
-        return height.subtract(IntegerElement.ONE);
+        return maxY;
     }
 
     public int numCursors() {
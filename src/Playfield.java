@@ -3,6 +3,24 @@
  * It is a (potentially mutable) two-dimensional grid of cells.  Each cell may
  * contain an Element (which can be any value that implements the Element
  * interface.)
+ *
+ * Cells may also be addressed with primitive coordinates.  The default
+ * implementations of those methods just box the coordinates; stock
+ * implementations override them to avoid doing so.
+ *
+ * forEachCell() visits every cell which does not hold the default element,
+ * in row-major order (top to bottom, then left to right.)  The default
+ * implementations simply look at every cell in the area; stock
+ * implementations override them to visit only what is stored.  The
+ * visitor must not modify the playfield.
+ *
+ * There are also operations on rectangular regions, each given by the
+ * coordinates of its top-left cell and its width and height: blit(),
+ * fill(), regionMatches() and regionHash().  The defaults work cell by
+ * cell; stock implementations may do them in bulk.
+ *
+ * fingerprint() is a 64-bit hash of the whole playfield; see Zobrist.
+ *
  * The source code in this file has been placed into the public domain.
  */ 
 package tc.catseye.yoob;
@@ -26,4 +44,119 @@ public interface Playfield<E extends Element> {
     IntegerElement getMaxY();
     int            numCursors();
     Cursor         getCursor(int index);
+
+    default void set(long x, long y, E e) {
+        set(IntegerElement.valueOf(x), IntegerElement.valueOf(y), e);
+    }
+
+    default E get(long x, long y) {
+        return get(IntegerElement.valueOf(x), IntegerElement.valueOf(y));
+    }
+
+    default void forEachCell(CellVisitor<E> v) {
+        forEachCell(getMinX().longValue(), getMinY().longValue(),
+                    getMaxX().longValue(), getMaxY().longValue(), v);
+    }
+
+    /*
+     * Visit the non-default cells in the given (inclusive) area only.
+     */
+    default void forEachCell(long minX, long minY, long maxX, long maxY, CellVisitor<E> v) {
+        E def = getDefault();
+        for (long y = minY; y <= maxY; y++) {
+            for (long x = minX; x <= maxX; x++) {
+                E e = get(x, y);
+                if (!e.equals(def)) {
+                    v.visit(x, y, e);
+                }
+            }
+        }
+    }
+
+    /*
+     * Copy the w by h region of src at (srcX, srcY) to (x, y) in this
+     * playfield.  Cells of src which equal skip (if it is not null) are
+     * not copied, so whatever was there stays; this is how wildcards
+     * and masks are done.  The regions may overlap, even if src is this.
+     */
+    default void blit(Playfield<E> src, long srcX, long srcY, long w, long h, long x, long y, E skip) {
+        // like memmove, go backwards if the destination comes later
+        boolean backwards = src == this && (y > srcY || (y == srcY && x > srcX));
+        for (long j = 0; j < h; j++) {
+            long dy = backwards ? h - 1 - j : j;
+            for (long i = 0; i < w; i++) {
+                long dx = backwards ? w - 1 - i : i;
+                E e = src.get(srcX + dx, srcY + dy);
+                if (skip == null || !e.equals(skip)) {
+                    set(x + dx, y + dy, e);
+                }
+            }
+        }
+    }
+
+    /*
+     * Set every cell in the w by h region at (x, y) to e.
+     */
+    default void fill(long x, long y, long w, long h, E e) {
+        for (long j = 0; j < h; j++) {
+            for (long i = 0; i < w; i++) {
+                set(x + i, y + j, e);
+            }
+        }
+    }
+
+    /*
+     * Return true iff each cell in the w by h region of pattern at
+     * (patX, patY) matches the corresponding cell of the region of this
+     * playfield at (x, y).  The pattern's element is passed to the
+     * Matcher as the one sought.
+     */
+    default boolean regionMatches(long x, long y, Playfield<E> pattern, long patX, long patY, long w, long h, Matcher<E,E> m) {
+        for (long j = 0; j < h; j++) {
+            for (long i = 0; i < w; i++) {
+                if (!m.match(pattern.get(patX + i, patY + j), get(x + i, y + j))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /*
+     * A hash of the contents of the w by h region at (x, y), which
+     * depends only on where the non-default cells are relative to the
+     * corner, and what they hold.  So regions with the same contents
+     * (and the same default) hash the same wherever they are.
+     */
+    default int regionHash(final long x, final long y, long w, long h) {
+        final int[] hash = { 1 };
+        if (w > 0 && h > 0) {
+            forEachCell(x, y, x + w - 1, y + h - 1, new CellVisitor<E>() {
+                public void visit(long cx, long cy, E e) {
+                    int p = Long.hashCode(((cy - y) << 32) + (cx - x));
+                    hash[0] = 31 * (31 * hash[0] + p) + e.hashCode();
+                }
+            });
+        }
+        return hash[0];
+    }
+
+    /*
+     * A fingerprint of the contents of this playfield and the positions
+     * of its cursors, made from Zobrist keys.  The default works it out
+     * from scratch; BasicPlayfield keeps it up to date as cells change.
+     */
+    default long fingerprint() {
+        final long[] h = { 0 };
+        forEachCell(new CellVisitor<E>() {
+            public void visit(long x, long y, E e) {
+                h[0] ^= Zobrist.cell(x, y, e);
+            }
+        });
+        long f = h[0];
+        for (int i = 0; i < numCursors(); i++) {
+            f = Zobrist.combine(f, getCursor(i).fingerprint());
+        }
+        return f;
+    }
 }
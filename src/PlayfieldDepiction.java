@@ -62,6 +62,66 @@ public class PlayfieldDepiction extends AbstractDepiction {
         repaint();
     }
 
+    /*
+     * Capture the playfield's element type, so that forEachCell() can
+     * be called on it with a visitor of plain Elements.
+     */
+    private static <E extends Element> void visitCells(Playfield<E> cells, long x0, long y0, long x1, long y1,
+                                                       final CellVisitor<Element> v) {
+        cells.forEachCell(x0, y0, x1, y1, new CellVisitor<E>() {
+            public void visit(long x, long y, E e) {
+                v.visit(x, y, e);
+            }
+        });
+    }
+
+    /*
+     * Paint every cell in the area.  The playfield only tells us about the
+     * non-default cells, so the default element is painted in the gaps.
+     */
+    private void paintCells(final Playfield<?> cells, final Graphics g, final boolean background,
+                            final int x0, final int y0, final int x1, final int y1,
+                            final int marginX, final int marginY) {
+        final Element def = cells.getDefault();
+        class Painter implements CellVisitor<Element> {
+            int x = x0;
+            int y = y0;
+
+            void paint(int cx, int cy, Element e) {
+                int paintX = marginX + (cx - minX) * cellWidth;
+                int paintY = marginY + (cy - minY) * cellHeight;
+                if (background) {
+                    v.renderBackground(g, e, paintX, paintY, cellWidth, cellHeight);
+                } else {
+                    v.render(g, e, paintX, paintY, cellWidth, cellHeight);
+                }
+            }
+
+            void fillTo(int tx, int ty) {
+                while (y < ty || (y == ty && x < tx)) {
+                    paint(x, y, def);
+                    if (++x > x1) {
+                        x = x0;
+                        y++;
+                    }
+                }
+            }
+
+            public void visit(long cx, long cy, Element e) {
+                fillTo((int)cx, (int)cy);
+                paint((int)cx, (int)cy, e);
+                if (++x > x1) {
+                    x = x0;
+                    y++;
+                }
+            }
+        }
+        if (x0 > x1 || y0 > y1) return;
+        Painter painter = new Painter();
+        visitCells(cells, x0, y0, x1, y1, painter);
+        painter.fillTo(x0, y1 + 1);
+    }
+
     protected void depict(Graphics g) {
         if (p == null || v == null) return;
 
@@ -70,20 +130,25 @@ public class PlayfieldDepiction extends AbstractDepiction {
         g.fillRect(r.x, r.y, r.width, r.height);
 
         recomputeBounds();
+        // a playfield other threads may be writing to is painted from a
+        // snapshot, so both passes below see the same cells
+        Playfield cells = p;
+        if (p instanceof ConcurrentPlayfield) {
+            cells = ((ConcurrentPlayfield)p).snapshot();
+        }
 
         int marginX = displayOffsetX + margin;
         int marginY = displayOffsetY + margin;
         g.setColor(Color.black); // view.getBorderColor()
         g.drawRect(marginX - 1, marginY - 1, width + 1, height + 1);
 
-        for (int y = minY; y <= maxY; y++) {
-            int paintY = (y - minY) * cellHeight;
-            for (int x = minX; x <= maxX; x++) {
-                Element e = p.get(new IntegerElement(x), new IntegerElement(y));
-                int paintX = (x - minX) * cellWidth;
-                v.renderBackground(g, e, marginX + paintX, marginY + paintY, cellWidth, cellHeight);
-            }
-        }
+        // only the cells which fall within the clip need painting
+        int visMinX = Math.max(minX, minX + (r.x - marginX) / Math.max(cellWidth, 1));
+        int visMinY = Math.max(minY, minY + (r.y - marginY) / Math.max(cellHeight, 1));
+        int visMaxX = Math.min(maxX, minX + (r.x + r.width - marginX) / Math.max(cellWidth, 1));
+        int visMaxY = Math.min(maxY, minY + (r.y + r.height - marginY) / Math.max(cellHeight, 1));
+
+        paintCells(cells, g, true, visMinX, visMinY, visMaxX, visMaxY, marginX, marginY);
 
         if (gridLines) {
             g.setColor(Color.lightGray);
@@ -99,14 +164,7 @@ public class PlayfieldDepiction extends AbstractDepiction {
             }
         }
 
-        for (int y = minY; y <= maxY; y++) {
-            int paintY = (y - minY) * cellHeight;
-            for (int x = minX; x <= maxX; x++) {
-                Element e = p.get(new IntegerElement(x), new IntegerElement(y));
-                int paintX = (x - minX) * cellWidth;
-                v.render(g, e, marginX + paintX, marginY + paintY, cellWidth, cellHeight);
-            }
-        }
+        paintCells(cells, g, false, visMinX, visMinY, visMaxX, visMaxY, marginX, marginY);
         
         int numCursors = p.numCursors();
         for (int c = 0; c < numCursors; c++) {
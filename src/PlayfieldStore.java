@@ -0,0 +1,26 @@
+/*
+ * A PlayfieldStore is a backing store for a BasicPlayfield: a map from
+ * (x,y) positions to elements.  Storing null at a position is the same
+ * as removing it.  Positions which have never been stored to (or which
+ * have been removed) map to null.
+ *
+ * Iteration visits every stored position, in no particular order.
+ * forEachCell() visits the stored positions in an area in row-major
+ * order, skipping any whose coordinates do not fit in a long.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.Map;
+
+public interface PlayfieldStore<E> extends Iterable<Map.Entry<Position, E>> {
+    E                 get(long x, long y);
+    E                 get(IntegerElement x, IntegerElement y);
+    E                 put(long x, long y, E e);
+    E                 put(IntegerElement x, IntegerElement y, E e);
+    int               size();
+    void              clear();
+    PlayfieldStore<E> clone();
+    void              forEachCell(long minX, long minY, long maxX, long maxY, CellVisitor<E> v);
+}
@@ -13,9 +13,9 @@ public class Position {
         this.y = (y == null) ? IntegerElement.ZERO : y;
     }
 
-    public Position(int x, int y) {
-        this.x = new IntegerElement(x);
-        this.y = new IntegerElement(y);
+    public Position(long x, long y) {
+        this.x = IntegerElement.valueOf(x);
+        this.y = IntegerElement.valueOf(y);
     }
 
     public int hashCode() {
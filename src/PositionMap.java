@@ -0,0 +1,338 @@
+/*
+ * A PositionMap is a map from (x,y) positions to values.  It is the
+ * default PlayfieldStore for BasicPlayfields, and is also useful in its
+ * own right wherever something needs to be looked up by position.
+ *
+ * Positions whose coordinates both fit in an int are packed into a
+ * single long and kept in an open-addressing table (linear probing,
+ * backward-shift deletion), so looking up a cell allocates nothing.
+ * Positions outside that range go in an ordinary HashMap keyed on
+ * Position, which is only created if such a position is ever used.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public class PositionMap<E> implements PlayfieldStore<E> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private Object[] values; // null marks an empty slot
+    private int size;
+    private int mask;
+    private HashMap<Position, E> overflow = null;
+
+    public PositionMap() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        size = 0;
+    }
+
+    public PositionMap<E> clone() {
+        PositionMap<E> c = new PositionMap<E>();
+        c.keys = keys.clone();
+        c.values = values.clone();
+        c.mask = mask;
+        c.size = size;
+        if (overflow != null) {
+            c.overflow = new HashMap<Position, E>(overflow);
+        }
+        return c;
+    }
+
+    private static boolean fitsInInt(long v) {
+        return v == (int)v;
+    }
+
+    private static long pack(long x, long y) {
+        return (x << 32) | (y & 0xffffffffL);
+    }
+
+    private static long unpackX(long key) {
+        return key >> 32;
+    }
+
+    private static long unpackY(long key) {
+        return (int)key;
+    }
+
+    private int slotFor(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E value(int slot) {
+        return (E)values[slot];
+    }
+
+    private int find(long key) {
+        int i = slotFor(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    public int size() {
+        return size + (overflow == null ? 0 : overflow.size());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+        overflow = null;
+    }
+
+    public E get(long x, long y) {
+        if (fitsInInt(x) && fitsInInt(y)) {
+            int i = find(pack(x, y));
+            return i < 0 ? null : value(i);
+        }
+        return overflow == null ? null : overflow.get(new Position(x, y));
+    }
+
+    public E get(IntegerElement x, IntegerElement y) {
+        if (x.isLong() && y.isLong()) {
+            return get(x.longValue(), y.longValue());
+        }
+        return overflow == null ? null : overflow.get(new Position(x, y));
+    }
+
+    /*
+     * Storing null is equivalent to removing the position.
+     */
+    public E put(long x, long y, E e) {
+        if (fitsInInt(x) && fitsInInt(y)) {
+            return putPacked(pack(x, y), e);
+        }
+        return putOverflow(new Position(x, y), e);
+    }
+
+    public E put(IntegerElement x, IntegerElement y, E e) {
+        if (x.isLong() && y.isLong()) {
+            return put(x.longValue(), y.longValue(), e);
+        }
+        return putOverflow(new Position(x, y), e);
+    }
+
+    public E remove(long x, long y) {
+        return put(x, y, null);
+    }
+
+    public E remove(IntegerElement x, IntegerElement y) {
+        return put(x, y, null);
+    }
+
+    private E putOverflow(Position p, E e) {
+        if (e == null) {
+            return overflow == null ? null : overflow.remove(p);
+        }
+        if (overflow == null) {
+            overflow = new HashMap<Position, E>();
+        }
+        return overflow.put(p, e);
+    }
+
+    private E putPacked(long key, E e) {
+        if (e == null) {
+            int i = find(key);
+            if (i < 0) {
+                return null;
+            }
+            E old = value(i);
+            deleteSlot(i);
+            return old;
+        }
+        int i = slotFor(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                E old = value(i);
+                values[i] = e;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = e;
+        size++;
+        if (size * 3 > values.length * 2) {
+            grow();
+        }
+        return null;
+    }
+
+    private void deleteSlot(int i) {
+        int j = i;
+        for (;;) {
+            j = (j + 1) & mask;
+            if (values[j] == null) {
+                break;
+            }
+            int k = slotFor(keys[j]);
+            // the entry at j may only move back to i if its home slot
+            // does not lie cyclically in (i, j]
+            boolean stays = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+            if (!stays) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        values[i] = null;
+        size--;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        int capacity = oldValues.length * 2;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            if (oldValues[j] != null) {
+                int i = slotFor(oldKeys[j]);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /*
+     * True iff the given area contains no more than n cells.
+     */
+    static boolean areaAtMost(long minX, long minY, long maxX, long maxY, long n) {
+        long w = maxX - minX + 1;
+        long h = maxY - minY + 1;
+        // a non-positive w or h here means the subtraction overflowed
+        return w > 0 && h > 0 && w <= n && h <= n / w;
+    }
+
+    /*
+     * If the area is small compared to the number of entries, each of its
+     * cells is looked up; otherwise the entries in the area are collected
+     * and sorted.
+     */
+    public void forEachCell(long minX, long minY, long maxX, long maxY, CellVisitor<E> v) {
+        if (minX > maxX || minY > maxY) {
+            return;
+        }
+        if (areaAtMost(minX, minY, maxX, maxY, size() * 2L)) {
+            // counted loops, in case maxX or maxY is Long.MAX_VALUE
+            for (long j = 0; j <= maxY - minY; j++) {
+                for (long i = 0; i <= maxX - minX; i++) {
+                    E e = get(minX + i, minY + j);
+                    if (e != null) {
+                        v.visit(minX + i, minY + j, e);
+                    }
+                }
+            }
+        } else if (overflow == null) {
+            // both coordinates fit in an int, so y * 2^32 + x orders them
+            long[] order = new long[size];
+            int n = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    long x = unpackX(keys[i]);
+                    long y = unpackY(keys[i]);
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                        order[n++] = (y << 32) + x;
+                    }
+                }
+            }
+            Arrays.sort(order, 0, n);
+            for (int i = 0; i < n; i++) {
+                long x = (int)order[i];
+                long y = (order[i] - x) >> 32;
+                v.visit(x, y, value(find(pack(x, y))));
+            }
+        } else {
+            List<Map.Entry<Position, E>> entries = new ArrayList<Map.Entry<Position, E>>();
+            for (Map.Entry<Position, E> entry : this) {
+                Position p = entry.getKey();
+                if (p.getX().isLong() && p.getY().isLong() &&
+                    p.getX().compareTo(minX) >= 0 && p.getX().compareTo(maxX) <= 0 &&
+                    p.getY().compareTo(minY) >= 0 && p.getY().compareTo(maxY) <= 0) {
+                    entries.add(entry);
+                }
+            }
+            Collections.sort(entries, new Comparator<Map.Entry<Position, E>>() {
+                public int compare(Map.Entry<Position, E> a, Map.Entry<Position, E> b) {
+                    int c = a.getKey().getY().compareTo(b.getKey().getY());
+                    return c != 0 ? c : a.getKey().getX().compareTo(b.getKey().getX());
+                }
+            });
+            for (Map.Entry<Position, E> entry : entries) {
+                Position p = entry.getKey();
+                v.visit(p.getX().longValue(), p.getY().longValue(), entry.getValue());
+            }
+        }
+    }
+
+    /*
+     * Iterates over all stored positions, in no particular order.
+     * The Position objects are created as the iteration proceeds.
+     * The map must not be modified during iteration.
+     */
+    public Iterator<Map.Entry<Position, E>> iterator() {
+        return new Iterator<Map.Entry<Position, E>>() {
+            private int slot = advance(0);
+            private Iterator<Map.Entry<Position, E>> rest = null;
+
+            private int advance(int from) {
+                while (from < values.length && values[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            public boolean hasNext() {
+                if (slot < values.length) {
+                    return true;
+                }
+                if (rest == null && overflow != null) {
+                    rest = overflow.entrySet().iterator();
+                }
+                return rest != null && rest.hasNext();
+            }
+
+            public Map.Entry<Position, E> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (slot < values.length) {
+                    long key = keys[slot];
+                    Map.Entry<Position, E> entry = new AbstractMap.SimpleImmutableEntry<Position, E>(
+                        new Position(unpackX(key), unpackY(key)), value(slot)
+                    );
+                    slot = advance(slot + 1);
+                    return entry;
+                }
+                return rest.next();
+            }
+        };
+    }
+}
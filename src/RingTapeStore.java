@@ -0,0 +1,197 @@
+/*
+ * A RingTapeStore is a TapeStore which keeps its cells in a circular
+ * array, indexed by position modulo the array's length.  Only the span
+ * of positions from the lowest occupied cell to the highest needs to
+ * fit in the array, so a run of cells which is added to at one end and
+ * removed from at the other (as a queue's is) can travel along the tape
+ * indefinitely in constant space.  The array doubles when the span
+ * outgrows it, and halves when the span shrinks to a quarter of it.
+ *
+ * As with ArrayTapeStore, a write which would stretch the span far
+ * beyond the number of occupied cells goes into a HashTapeStore instead.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class RingTapeStore<E> implements TapeStore<E> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private Object[] ring = new Object[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int count = 0; // non-null entries in ring
+    // the lowest and highest occupied positions in ring, if count > 0
+    private long lo = 0, hi = -1;
+    private HashTapeStore<E> sparse = null;
+
+    public RingTapeStore<E> clone() {
+        RingTapeStore<E> c = new RingTapeStore<E>();
+        c.ring = ring.clone();
+        c.mask = mask;
+        c.count = count;
+        c.lo = lo;
+        c.hi = hi;
+        if (sparse != null) {
+            c.sparse = sparse.clone();
+        }
+        return c;
+    }
+
+    private boolean inSpan(long p) {
+        return count > 0 && p >= lo && p <= hi;
+    }
+
+    // the cell of the ring where position p would be kept
+    @SuppressWarnings("unchecked")
+    private E cell(long p) {
+        return (E)ring[(int)p & mask];
+    }
+
+    public E get(long p) {
+        if (inSpan(p)) {
+            E e = cell(p);
+            if (e != null) {
+                return e;
+            }
+        }
+        return sparse == null ? null : sparse.get(p);
+    }
+
+    public E get(IntegerElement p) {
+        if (p.isLong()) {
+            return get(p.longValue());
+        }
+        return sparse == null ? null : sparse.get(p);
+    }
+
+    /*
+     * Move the occupied span into a ring of the given capacity.
+     */
+    private void resize(int capacity) {
+        Object[] r = new Object[capacity];
+        int m = capacity - 1;
+        if (count > 0) {
+            // a counted loop, in case hi is Long.MAX_VALUE
+            for (long j = 0; j <= hi - lo; j++) {
+                r[(int)(lo + j) & m] = ring[(int)(lo + j) & mask];
+            }
+        }
+        ring = r;
+        mask = m;
+    }
+
+    public E put(long p, E e) {
+        if (e == null) {
+            return remove(p);
+        }
+        long newLo = count == 0 ? p : Math.min(lo, p);
+        long newHi = count == 0 ? p : Math.max(hi, p);
+        long span = newHi - newLo + 1;
+        // a non-positive span here means the subtraction overflowed
+        if (span <= 0 || span > ring.length) {
+            if (span <= 0 || span > MAX_CAPACITY || span > 4L * (count + 1) + INITIAL_CAPACITY) {
+                return putSparse(IntegerElement.valueOf(p), e);
+            }
+            int capacity = ring.length;
+            while (capacity < span) {
+                capacity *= 2;
+            }
+            resize(capacity);
+        }
+        int i = (int)p & mask;
+        E old = cell(p);
+        ring[i] = e;
+        lo = newLo;
+        hi = newHi;
+        if (old == null) {
+            count++;
+            if (sparse != null) {
+                old = sparse.put(p, null);
+            }
+        }
+        return old;
+    }
+
+    private E remove(long p) {
+        if (!inSpan(p) || ring[(int)p & mask] == null) {
+            return sparse == null ? null : sparse.put(p, null);
+        }
+        int i = (int)p & mask;
+        E old = cell(p);
+        ring[i] = null;
+        count--;
+        if (count == 0) {
+            lo = 0;
+            hi = -1;
+        } else {
+            while (ring[(int)lo & mask] == null) {
+                lo++;
+            }
+            while (ring[(int)hi & mask] == null) {
+                hi--;
+            }
+        }
+        if (ring.length > INITIAL_CAPACITY && (hi - lo + 1) * 4 <= ring.length) {
+            resize(ring.length / 2);
+        }
+        return old;
+    }
+
+    public E put(IntegerElement p, E e) {
+        if (p.isLong()) {
+            return put(p.longValue(), e);
+        }
+        return putSparse(p, e);
+    }
+
+    private E putSparse(IntegerElement p, E e) {
+        if (sparse == null) {
+            if (e == null) {
+                return null;
+            }
+            sparse = new HashTapeStore<E>();
+        }
+        return sparse.put(p, e);
+    }
+
+    public int size() {
+        return count + (sparse == null ? 0 : sparse.size());
+    }
+
+    public void clear() {
+        ring = new Object[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        count = 0;
+        lo = 0;
+        hi = -1;
+        sparse = null;
+    }
+
+    /*
+     * The entries are gathered up front.
+     */
+    public Iterator<Map.Entry<IntegerElement, E>> iterator() {
+        List<Map.Entry<IntegerElement, E>> entries = new ArrayList<Map.Entry<IntegerElement, E>>(size());
+        if (count > 0) {
+            for (long j = 0; j <= hi - lo; j++) {
+                E e = cell(lo + j);
+                if (e != null) {
+                    entries.add(new AbstractMap.SimpleImmutableEntry<IntegerElement, E>(IntegerElement.valueOf(lo + j), e));
+                }
+            }
+        }
+        if (sparse != null) {
+            for (Map.Entry<IntegerElement, E> entry : sparse) {
+                entries.add(entry);
+            }
+        }
+        return entries.iterator();
+    }
+}
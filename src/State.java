@@ -36,5 +36,28 @@ public interface State {
     boolean      needsInput();
     String       exportToText();
     void         setOption(String name, boolean value);
+
+    /*
+     * A 64-bit fingerprint of this State, for spotting repeated states
+     * and keying caches.  The default combines the fingerprints of the
+     * playfields and tapes (which, for the stock ones, take constant time)
+     * with the program position and whether the program has halted.
+     * States which keep anything else that matters should override this
+     * and mix it in with Zobrist.combine().
+     */
+    default long fingerprint() {
+        Language l = getLanguage();
+        long h = 0;
+        for (int i = 0; i < l.numPlayfields(); i++) {
+            Playfield p = getPlayfield(i);
+            h = Zobrist.combine(h, p == null ? 0 : p.fingerprint());
+        }
+        for (int i = 0; i < l.numTapes(); i++) {
+            Tape t = getTape(i);
+            h = Zobrist.combine(h, t == null ? 0 : t.fingerprint());
+        }
+        h = Zobrist.combine(h, getProgramPosition());
+        return Zobrist.combine(h, hasHalted() ? 1 : 0);
+    }
 }
 
@@ -5,6 +5,10 @@
  * Each cell may contain an Element (which can be any value that
  * implements the Element interface.)
  *
+ * Cells may also be addressed with primitive positions.  The default
+ * implementations of those methods just box the position; stock
+ * implementations override them to avoid doing so.
+ *
  * The source code in this file has been placed into the public domain.
  */ 
 package tc.catseye.yoob;
@@ -21,4 +25,30 @@ public interface Tape<E extends Element> {
     IntegerElement  getMax();
     int             numHeads();
     Head            getHead(int index);
+
+    default E read(long pos) {
+        return read(IntegerElement.valueOf(pos));
+    }
+
+    default void write(long pos, E e) {
+        write(IntegerElement.valueOf(pos), e);
+    }
+
+    /*
+     * A fingerprint of the contents of this tape and the positions of
+     * its heads, made from Zobrist keys.  The default works it out from
+     * every cell between getMin() and getMax(); BasicTape leaves out
+     * cells holding its default element, and keeps it up to date as
+     * cells are written.
+     */
+    default long fingerprint() {
+        long h = 0;
+        for (IntegerElement i = getMin(); i.compareTo(getMax()) <= 0; i = i.succ()) {
+            h ^= Zobrist.cell(i, read(i));
+        }
+        for (int i = 0; i < numHeads(); i++) {
+            h = Zobrist.combine(h, getHead(i).fingerprint());
+        }
+        return h;
+    }
 }
@@ -63,7 +63,7 @@ public class TapeDepiction extends AbstractDepiction {
                    cellWidth + 1, size * cellHeight + 1);
 
         for (int y = min; y <= max; y++) {
-            Element e = t.read(new IntegerElement(y));
+            Element e = t.read((long)y);
             int paintY = (y - min) * cellHeight;
             v.renderBackground(g, e, marginX, marginY + paintY, cellWidth, cellHeight);
         }
@@ -78,7 +78,7 @@ public class TapeDepiction extends AbstractDepiction {
         }
 
         for (int y = min; y <= max; y++) {
-            Element e = t.read(new IntegerElement(y));
+            Element e = t.read((long)y);
             int paintY = (y - min) * cellHeight;
             v.render(g, e, marginX, marginY + paintY, cellWidth, cellHeight);
         }
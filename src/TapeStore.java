@@ -0,0 +1,23 @@
+/*
+ * A TapeStore is a backing store for a BasicTape: a map from positions
+ * to elements.  Storing null at a position is the same as removing it.
+ * Positions which have never been stored to (or which have been
+ * removed) map to null.
+ *
+ * Iteration visits every stored position, in no particular order.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.Map;
+
+public interface TapeStore<E> extends Iterable<Map.Entry<IntegerElement, E>> {
+    E            get(long pos);
+    E            get(IntegerElement pos);
+    E            put(long pos, E e);
+    E            put(IntegerElement pos, E e);
+    int          size();
+    void         clear();
+    TapeStore<E> clone();
+}
@@ -30,7 +30,7 @@ public class TextAreasWorld implements World {
         // pop from front of input textarea
         String s = inputTextArea.getText();
         if (s.length() > 0) {
-            CharacterElement c = new CharacterElement(s.charAt(0));
+            CharacterElement c = CharacterElement.of(s.charAt(0));
             inputTextArea.setText(s.substring(1));
             return c;
         }
@@ -0,0 +1,123 @@
+/*
+ * A TileMap is an AbstractTileMap whose tiles are flat arrays of element
+ * references, so it can hold any kind of element.  For dense playfields
+ * this costs one reference per cell and makes neighbouring cells
+ * neighbours in memory.
+ *
+ * Each tile also keeps a box bounding its occupied cells (which only
+ * grows), which forEachCell() uses to skip empty space.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+import java.util.List;
+
+public class TileMap<E> extends AbstractTileMap<E> {
+    protected static class ElementTile extends Tile {
+        Object[] cells = new Object[TILE_SIZE * TILE_SIZE];
+        // a box (in tile-local coordinates) containing every occupied cell
+        int minX = TILE_SIZE, minY = TILE_SIZE, maxX = -1, maxY = -1;
+
+        ElementTile(long tx, long ty, Object owner) {
+            super(tx, ty, owner);
+        }
+
+        protected Tile copy(Object owner) {
+            ElementTile t = new ElementTile(tx, ty, owner);
+            t.cells = cells.clone();
+            t.count = count;
+            t.minX = minX;
+            t.minY = minY;
+            t.maxX = maxX;
+            t.maxY = maxY;
+            return t;
+        }
+    }
+
+    protected AbstractTileMap<E> newMap() {
+        return new TileMap<E>();
+    }
+
+    protected Tile newTile(long tx, long ty, Object owner) {
+        return new ElementTile(tx, ty, owner);
+    }
+
+    public TileMap<E> clone() {
+        return (TileMap<E>)super.clone();
+    }
+
+    @SuppressWarnings("unchecked")
+    private E cell(Object[] cells, int i) {
+        return (E)cells[i];
+    }
+
+    public E get(long x, long y) {
+        ElementTile t = (ElementTile)findTile(x >> TILE_SHIFT, y >> TILE_SHIFT);
+        if (t == null) {
+            return null;
+        }
+        return cell(t.cells, ((int)y & TILE_MASK) * TILE_SIZE + ((int)x & TILE_MASK));
+    }
+
+    public E put(long x, long y, E e) {
+        long tx = x >> TILE_SHIFT;
+        long ty = y >> TILE_SHIFT;
+        ElementTile t = (ElementTile)findTile(tx, ty);
+        if (t == null) {
+            if (e == null) {
+                return null;
+            }
+            t = (ElementTile)createTile(tx, ty);
+        }
+        int lx = (int)x & TILE_MASK;
+        int ly = (int)y & TILE_MASK;
+        int i = ly * TILE_SIZE + lx;
+        E old = cell(t.cells, i);
+        if (old == e) {
+            return old;
+        }
+        t = (ElementTile)ownTile(t);
+        t.cells[i] = e;
+        if (old == null) {
+            if (lx < t.minX) t.minX = lx;
+            if (lx > t.maxX) t.maxX = lx;
+            if (ly < t.minY) t.minY = ly;
+            if (ly > t.maxY) t.maxY = ly;
+            adjustCount(t, 1);
+        } else if (e == null) {
+            adjustCount(t, -1);
+        }
+        return old;
+    }
+
+    protected void visitTileRow(List<Tile> row, long minX, long minY, long maxX, long maxY, CellVisitor<E> v) {
+        long baseY = row.get(0).ty << TILE_SHIFT;
+        int ly0 = TILE_SIZE, ly1 = -1;
+        for (Tile tile : row) {
+            ElementTile t = (ElementTile)tile;
+            if (t.minY < ly0) ly0 = t.minY;
+            if (t.maxY > ly1) ly1 = t.maxY;
+        }
+        ly0 = (int)(Math.max(baseY + ly0, minY) - baseY);
+        ly1 = (int)(Math.min(baseY + ly1, maxY) - baseY);
+        for (int ly = ly0; ly <= ly1; ly++) {
+            for (Tile tile : row) {
+                ElementTile t = (ElementTile)tile;
+                if (ly < t.minY || ly > t.maxY) {
+                    continue;
+                }
+                long baseX = t.tx << TILE_SHIFT;
+                int lx0 = (int)(Math.max(baseX + t.minX, minX) - baseX);
+                int lx1 = (int)(Math.min(baseX + t.maxX, maxX) - baseX);
+                Object[] cells = t.cells;
+                for (int lx = lx0; lx <= lx1; lx++) {
+                    E c = cell(cells, ly * TILE_SIZE + lx);
+                    if (c != null) {
+                        v.visit(baseX + lx, baseY + ly, c);
+                    }
+                }
+            }
+        }
+    }
+}
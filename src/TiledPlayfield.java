@@ -0,0 +1,28 @@
+/*
+ * A TiledPlayfield is a BasicPlayfield whose backing store is a TileMap
+ * rather than a PositionMap.  This suits playfields which are mostly
+ * full, such as 2-dimensional program texts and cellular automaton
+ * boards.  It can be extended in exactly the same way as BasicPlayfield.
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public class TiledPlayfield<E extends Element> extends BasicPlayfield<E> {
+    public TiledPlayfield(E def) {
+        super(def);
+    }
+
+    public TiledPlayfield(E def, PlayfieldStore<E> store) {
+        super(def, store);
+    }
+
+    public TiledPlayfield<E> clone() {
+        TiledPlayfield<E> c = new TiledPlayfield<E>(getDefault());
+        c.copyBackingStoreFrom(this);
+        return c;
+    }
+
+    protected PlayfieldStore<E> createStore() {
+        return new TileMap<E>();
+    }
+}
@@ -23,14 +23,14 @@ public class WrapCursor<E extends Element> extends BasicCursor<E> {
         IntegerElement width = pf.getMaxX().subtract(pf.getMinX()).succ();
         IntegerElement height = pf.getMaxY().subtract(pf.getMinY()).succ();
 
-        x = x.add(new IntegerElement(dx));
+        x = x.add(dx);
         if (x.compareTo(pf.getMinX()) < 0) {
             x = x.add(width);
         } else if (x.compareTo(pf.getMaxX()) > 0) {
             x = x.subtract(width);
         }
 
-        y = y.add(new IntegerElement(dy));
+        y = y.add(dy);
         if (y.compareTo(pf.getMinY()) < 0) {
             y = y.add(height);
         } else if (y.compareTo(pf.getMaxY()) > 0) {
@@ -0,0 +1,73 @@
+/*
+ * Zobrist provides the keys used to fingerprint playfields, tapes,
+ * cursors, heads and whole States.
+ *
+ * A playfield's fingerprint is the XOR of a key for each of its
+ * non-default cells, and a tape's is the same over its positions, so it
+ * can be kept up to date as cells change, by XORing out the old cell's
+ * key and XORing in the new one.  Rather than a table of random keys,
+ * each key is made by mixing the position with the element's
+ * hashCode(), so there is no limit on the coordinates.
+ *
+ * Equal contents give equal fingerprints only if the elements' hashCode()
+ * agrees with their equals(); for elements which do not override
+ * hashCode(), only the very same objects are sure to.  Different
+ * contents may, rarely, give the same fingerprint.
+ *
+ * The source code in this file has been placed into the public domain.
+ */
+package tc.catseye.yoob;
+
+public class Zobrist {
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    // salts distinguishing coordinates that do not fit in a long
+    private static final long BIG_X = 0x632BE59BD9B4E019L;
+    private static final long BIG_Y = 0x85157AF5B4F9E5E5L;
+
+    /*
+     * The SplitMix64 finalizer: a cheap, thorough scrambling of a long.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /*
+     * Combine a running fingerprint with another one, in order.
+     */
+    public static long combine(long h, long k) {
+        return mix(h * GOLDEN + k);
+    }
+
+    public static long of(IntegerElement i) {
+        return i.isLong() ? mix(i.longValue()) : mix(i.hashCode() ^ BIG_X);
+    }
+
+    public static long cell(long x, long y, Element e) {
+        return cell(x, y, e.hashCode());
+    }
+
+    /*
+     * The key for a cell holding an element with the given hashCode(),
+     * for stores which keep their cells as primitive values.
+     */
+    public static long cell(long x, long y, int hashCode) {
+        return mix(mix(x + GOLDEN) + y * GOLDEN + hashCode);
+    }
+
+    public static long cell(IntegerElement x, IntegerElement y, Element e) {
+        if (x.isLong() && y.isLong()) {
+            return cell(x.longValue(), y.longValue(), e);
+        }
+        return mix(mix(of(x) ^ BIG_X) + (of(y) ^ BIG_Y) * GOLDEN + e.hashCode());
+    }
+
+    public static long cell(long pos, Element e) {
+        return cell(pos, 0, e);
+    }
+
+    public static long cell(IntegerElement pos, Element e) {
+        return cell(pos, IntegerElement.ZERO, e);
+    }
+}
@@ -9,8 +9,6 @@ import tc.catseye.yoob.Error;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
 
 import java.net.URL;
 import java.net.MalformedURLException;
@@ -120,16 +118,17 @@ class SharedHeadTape<E extends Element> extends BasicTape<E> {
         super(def);
     }
 
+    protected TapeStore<E> createStore() {
+        return new ArrayTapeStore<E>();
+    }
+
     public void setHeads(List<SharedHead<E>> heads) {
         this.heads = heads;
     }
 
-    // TODO: copyBackingStore, like in playfields
     public SharedHeadTape<E> clone() {
         SharedHeadTape<E> c = new SharedHeadTape<E>(def);
-        c.store = new HashMap<IntegerElement, E>((Map<IntegerElement, E>)this.store);
-        c.min = this.min;
-        c.max = this.max;
+        c.copyBackingStoreFrom(this);
         c.heads = this.heads;
         /* DOES NOT CLONE HEADS.  That's up to whatever is cloning this. */
         return c;
@@ -165,8 +164,8 @@ public class AleState implements State {
     protected String program;
     protected int pc = 0;
     private static final Ale language = new Ale();
-    private static final IntegerElement dataLength = new IntegerElement(8);
-    private static final IntegerElement TWO = new IntegerElement(2);
+    private static final IntegerElement dataLength = IntegerElement.valueOf(8);
+    private static final IntegerElement TWO = IntegerElement.valueOf(2);
 
     public AleState() {
         dataTape = new SharedHeadTape<IntegerElement>(IntegerElement.ZERO);
@@ -246,6 +245,10 @@ public class AleState implements State {
         return c;
     }
 
+    public long fingerprint() {
+        return Zobrist.combine(State.super.fingerprint(), current);
+    }
+
     public List<Error> step(World world) {
         ArrayList<Error> errors = new ArrayList<Error>();
         SharedHead<IntegerElement> currentHead = getCurrentHead();
@@ -302,7 +305,7 @@ public class AleState implements State {
                     }
                     currentHead.write(new IntegerElement(c.getChar()));
                 } else {
-                    world.output(new CharacterElement(i.intValue()));
+                    world.output(CharacterElement.of(i.intValue()));
                 }
                 break;
             case ':':
@@ -146,7 +146,7 @@ public class BackFlipState implements State {
         else if (ip.isHeaded(1, 0))
             a = '<';
         /* else error */
-        return new CharacterElement(a);
+        return CharacterElement.of(a);
     }
 
     public List<Error> step(World world) {
@@ -182,11 +182,11 @@ public class BackFlipState implements State {
              * to the other sort of flipping mirror.
              */
             case '/':
-                ip.set(new CharacterElement('\\'));
+                ip.set(CharacterElement.of('\\'));
                 ip.setDelta(ip.getDeltaY().negate(), ip.getDeltaX().negate());
                 break;
             case '\\':
-                ip.set(new CharacterElement('/'));
+                ip.set(CharacterElement.of('/'));
                 ip.setDelta(ip.getDeltaY(), ip.getDeltaX());
                 break;
             default:
@@ -355,11 +355,11 @@ class Befunge93 implements Language {
 
 }
 
-class Befunge93Playfield extends BasicPlayfield<CharacterElement> {
+class Befunge93Playfield extends TiledPlayfield<CharacterElement> {
     protected WrapCursor<CharacterElement> pc = null;
 
     public Befunge93Playfield() {
-        super(new CharacterElement(' '));
+        super(CharacterElement.of(' '));
         clear();
     }
 
@@ -381,7 +381,7 @@ class Befunge93Playfield extends BasicPlayfield<CharacterElement> {
     }
 
     public IntegerElement getMaxX() {
-        return new IntegerElement(79);
+        return IntegerElement.valueOf(79);
     }
 
     public IntegerElement getMinY() {
@@ -389,7 +389,7 @@ class Befunge93Playfield extends BasicPlayfield<CharacterElement> {
     }
 
     public IntegerElement getMaxY() {
-        return new IntegerElement(24);
+        return IntegerElement.valueOf(24);
     }
 
     public int numCursors() {
@@ -406,7 +406,7 @@ class Befunge93Playfield extends BasicPlayfield<CharacterElement> {
         if (x < 0 || x > 79 || y < 0 || y > 24) {
             return;
         }
-        set(x, y, new CharacterElement(c));
+        set(x, y, CharacterElement.of(c));
     }
     
     public String dumpElement(CharacterElement e) {
@@ -418,7 +418,7 @@ class Befunge93PlayfieldView extends BasicPlayfieldView {
 }
 
 public class Befunge93State implements State {
-    protected BasicStack<Int32Element> stack;
+    protected IntStack stack;
     protected Befunge93Playfield playfield;
     protected BasicTapeView stackView;
     protected Befunge93PlayfieldView pfView;
@@ -430,7 +430,7 @@ public class Befunge93State implements State {
     private static final Befunge93 language = new Befunge93();
 
     public Befunge93State() {
-        stack = new BasicStack<Int32Element>(new Int32Element(0));
+        stack = new IntStack();
         playfield = new Befunge93Playfield();
         pfView = new Befunge93PlayfieldView();
         stackView = new BasicTapeView();
@@ -451,6 +451,16 @@ public class Befunge93State implements State {
         return c;
     }
 
+    public long fingerprint() {
+        long h = State.super.fingerprint();
+        h = Zobrist.combine(h, stringmode ? 1 : 0);
+        h = Zobrist.combine(h, inputIntAcc == null ? 0 : 1);
+        if (inputIntAcc != null) {
+            h = Zobrist.combine(h, inputIntAcc.getValue());
+        }
+        return h;
+    }
+
     /*
      * This has some limitations
      */
@@ -460,7 +470,7 @@ public class Befunge93State implements State {
             if (c == null) {
                 return false;
             } else if (c.isDigit()) {
-                inputIntAcc = new Int32Element(inputIntAcc.getValue() * 10 + c.digitValue());
+                inputIntAcc = Int32Element.valueOf(inputIntAcc.getValue() * 10 + c.digitValue());
             } else {
                 stack.push(inputIntAcc);
                 inputIntAcc = null;
@@ -474,7 +484,7 @@ public class Befunge93State implements State {
         BasicCursor<CharacterElement> pc = playfield.getCursor(0);
         CharacterElement i = pc.get();
         char instruction = i.getChar();
-        Int32Element a, b;
+        int a, b;
         CharacterElement c;
 
         if (inputIntAcc != null) {
@@ -492,41 +502,41 @@ public class Befunge93State implements State {
             if (instruction == '"') {
                 stringmode = false;
             } else {
-                stack.push(new Int32Element(instruction));
+                stack.pushInt(instruction);
             }
         } else if (instruction >= '0' && instruction <= '9') {
-            stack.push(new Int32Element((int)instruction - (int)'0'));
+            stack.pushInt((int)instruction - (int)'0');
         } else switch (instruction) {
             case '+':
-                b = stack.pop();
-                a = stack.pop();
-                stack.push(a.add(b));
+                b = stack.popInt();
+                a = stack.popInt();
+                stack.pushInt(a + b);
                 break;
             case '-':
-                b = stack.pop();
-                a = stack.pop();
-                stack.push(a.subtract(b));
+                b = stack.popInt();
+                a = stack.popInt();
+                stack.pushInt(a - b);
                 break;
             case '*':
-                b = stack.pop();
-                a = stack.pop();
-                stack.push(a.multiply(b));
+                b = stack.popInt();
+                a = stack.popInt();
+                stack.pushInt(a * b);
                 break;
             case '/':
-                b = stack.pop();
-                a = stack.pop();
-                if (b.isZero())
-                    stack.push(Int32Element.ZERO);
+                b = stack.popInt();
+                a = stack.popInt();
+                if (b == 0)
+                    stack.pushInt(0);
                 else
-                    stack.push(a.divide(b));
+                    stack.pushInt(a / b);
                 break;
             case '%':
-                b = stack.pop();
-                a = stack.pop();
-                if (b.isZero())
-                    stack.push(Int32Element.ZERO);
+                b = stack.popInt();
+                a = stack.popInt();
+                if (b == 0)
+                    stack.pushInt(0);
                 else
-                    stack.push(a.modulo(b));
+                    stack.pushInt(a % b);
                 break;
             case '<':
                 pc.setDelta(-1, 0);
@@ -547,12 +557,12 @@ public class Befunge93State implements State {
                     needsInput = true;
                     return errors;
                 }
-                stack.push(new Int32Element(c.getChar()));
+                stack.pushInt(c.getChar());
                 break;
             case '&':
                 // & - Input an integer (in ASCII characters, terminated by a non-digit)
                 // from standard input and push onto stack.
-                inputIntAcc = new Int32Element(0);
+                inputIntAcc = Int32Element.valueOf(0);
                 boolean finished = readDigits(world);
                 if (!finished) {
                     needsInput = true;
@@ -561,15 +571,15 @@ public class Befunge93State implements State {
                 break;
             case ',':
                 // , - Pop a value off the stack and output as an ASCII character
-                a = stack.pop();
-                world.output(new CharacterElement(a.toChar()));
+                a = stack.popInt();
+                world.output(CharacterElement.of((char)a));
                 break;
             case '.':
                 // . - Pop a value off the stack and output as an decimal
                 // integer followed by a space (all in ASCII)
-                a = stack.pop();
-                world.output(a);
-                world.output(new CharacterElement(' '));
+                a = stack.popInt();
+                world.output(Int32Element.valueOf(a));
+                world.output(CharacterElement.of(' '));
                 break;
             case '#':
                 // # - Jump over the next cell.
@@ -580,39 +590,33 @@ public class Befunge93State implements State {
                 halted = true;
                 return errors;
             case '|':
-                a = stack.pop();
-                pc.setDelta(0, a.isZero() ? 1 : -1);
+                a = stack.popInt();
+                pc.setDelta(0, a == 0 ? 1 : -1);
                 break;
             case '_':
-                a = stack.pop();
-                pc.setDelta(a.isZero() ? 1 : -1, 0);
+                a = stack.popInt();
+                pc.setDelta(a == 0 ? 1 : -1, 0);
                 break;
             case '$':
-                a = stack.pop();
+                stack.popInt();
                 break;
             case ':':
-                a = stack.pop();
-                stack.push(a);
-                stack.push(a);
+                stack.dup();
                 break;
             case '\\':
-                a = stack.pop();
-                b = stack.pop();
-                stack.push(a);
-                stack.push(b);
+                a = stack.popInt();
+                b = stack.popInt();
+                stack.pushInt(a);
+                stack.pushInt(b);
                 break;
             case '!':
-                a = stack.pop();
-                if (a.isZero())
-                    stack.push(Int32Element.ONE);
-                else
-                    stack.push(Int32Element.ZERO);
+                a = stack.popInt();
+                stack.pushInt(a == 0 ? 1 : 0);
                 break;
             case '`':
-                b = stack.pop();
-                a = stack.pop();
-                stack.push(a.getValue() > b.getValue() ?
-                           Int32Element.ONE : Int32Element.ZERO);
+                b = stack.popInt();
+                a = stack.popInt();
+                stack.pushInt(a > b ? 1 : 0);
                 break;
             case '"':
                 stringmode = true;
@@ -630,17 +634,16 @@ public class Befunge93State implements State {
                 }
                 break;
             case 'g':
-                b = stack.pop();
-                a = stack.pop();
-                c = playfield.get(a.getValue(), b.getValue());
-                stack.push(new Int32Element((int)c.getChar()));
+                b = stack.popInt();
+                a = stack.popInt();
+                c = playfield.get(a, b);
+                stack.pushInt((int)c.getChar());
                 break;
             case 'p':
-                b = stack.pop();
-                a = stack.pop();
-                Int32Element v = stack.pop();
-                c = new CharacterElement(v.getValue());
-                playfield.set(a.getValue(), b.getValue(), c);
+                b = stack.popInt();
+                a = stack.popInt();
+                c = CharacterElement.of(stack.popInt());
+                playfield.set(a, b, c);
                 break;
             default:
                 // NOP
@@ -226,15 +226,15 @@ public class BlackState implements State {
                   halted = true;
                   return errors;
               }
-              ip.set(new CharacterElement(' '));
-              CharacterElement c = new CharacterElement(instruction);
+              ip.set(CharacterElement.of(' '));
+              CharacterElement c = CharacterElement.of(instruction);
               ahead.set(c);
               ip.rotate(180);
               if (instruction >= '0' && instruction <= '9') {
                   world.output(c);
               }
               if (instruction == 'N') {
-                  world.output(new CharacterElement('\n'));
+                  world.output(CharacterElement.of('\n'));
               }
               break;
         }
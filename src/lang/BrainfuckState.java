@@ -66,7 +66,7 @@ class Brainfuck extends TextBasedLanguage<BrainfuckState> {
 }
 
 public class BrainfuckState implements State {
-    protected BasicTape<ByteElement> tape;
+    protected ByteTape tape;
     protected BasicTapeView tapeView;
     protected boolean halted = false;
     protected boolean needsInput = false;
@@ -75,7 +75,7 @@ public class BrainfuckState implements State {
     private static final Brainfuck language = new Brainfuck();
 
     public BrainfuckState() {
-        tape = new BasicTape<ByteElement>(new ByteElement(0));
+        tape = new ByteTape();
         tapeView = new BasicTapeView();
     }
     
@@ -96,7 +96,7 @@ public class BrainfuckState implements State {
     public List<Error> step(World world) {
         ArrayList<Error> errors = new ArrayList<Error>();
         BasicHead<ByteElement> h = tape.getHead(0);
-        ByteElement b = h.read();
+        int b = tape.readByte(h.getPosLong());
         char instruction = program.charAt(pc);
 
         switch (instruction) {
@@ -110,11 +110,11 @@ public class BrainfuckState implements State {
                 break;
             case '+':
                 // + INCR  Increment current memory cell
-                h.write(b.succ());
+                tape.addAt(h.getPosLong(), 1);
                 break;
             case '-':
                 // - DECR  Decrement current memory cell
-                h.write(b.pred());
+                tape.addAt(h.getPosLong(), -1);
                 break;
             case ',':
                 // , READ  Read a byte into current memory cell
@@ -123,15 +123,15 @@ public class BrainfuckState implements State {
                     needsInput = true;
                     return errors;
                 }
-                h.write(new ByteElement(c.getChar()));
+                tape.writeByte(h.getPosLong(), c.getChar());
                 break;
             case '.':
                 // . WRITE Write a byte from current memory cell
-                world.output(new CharacterElement(b.toChar()));
+                world.output(CharacterElement.of((char)b));
                 break;
             case '[':
                 // [ WHILE Begin a while loop
-                if (b.isZero()) {
+                if (b == 0) {
                     // skip forwards to matching ]
                     int depth = 0;
                     for (;;) {
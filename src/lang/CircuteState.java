@@ -9,8 +9,7 @@ import tc.catseye.yoob.Error;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Map;
-import java.util.HashMap;
+import java.util.Arrays;
 
 
 class Circute implements Language {
@@ -141,22 +140,27 @@ class CircutePlayfield extends CellularAutomatonPlayfield<CharacterElement> {
     static final char NAND  = 'N';
     static final char SPACE = ' ';
 
+    // only these cells ever change
+    private static final List<CharacterElement> ACTIVE = Arrays.asList(
+        CharacterElement.of(WIRE), CharacterElement.of(TAIL), CharacterElement.of(SPARK)
+    );
+
     public CircutePlayfield() {
-        super(new CharacterElement(SPACE));
+        super(CharacterElement.of(SPACE));
+        for (CharacterElement e : ACTIVE) {
+            addIndex(e);
+        }
     }
 
     public CircutePlayfield clone() {
         CircutePlayfield c = new CircutePlayfield();
-        c.store = new HashMap<Position, CharacterElement>(
-          (Map<Position, CharacterElement>)this.store
-        );
         c.copyBackingStoreFrom(this);
         return c;
     }
 
     public CharacterElement applyRules(IntegerElement x, IntegerElement y, CharacterElement elem) {
         if (elem.getChar() == TAIL) {
-            return new CharacterElement(WIRE);
+            return CharacterElement.of(WIRE);
         } else if (elem.getChar() == WIRE) {
             boolean adjacentSpark = (
                 get(x.succ(), y).getChar() == SPARK ||
@@ -175,7 +179,7 @@ class CircutePlayfield extends CellularAutomatonPlayfield<CharacterElement> {
                  get(x.succ(), y.pred()).getChar() == WIRE)
             );
             if (adjacentSpark || activeNANDBelow || activeNANDAbove)
-                return new CharacterElement(SPARK);
+                return CharacterElement.of(SPARK);
         } else if (elem.getChar() == SPARK) {
             boolean adjacentTail = (
                 get(x.succ(), y).getChar() == TAIL ||
@@ -194,10 +198,28 @@ class CircutePlayfield extends CellularAutomatonPlayfield<CharacterElement> {
                 get(x.succ(), y.pred()).getChar() == SPARK
             );
             if (adjacentTail || inactiveNANDBelow || inactiveNANDAbove)
-                return new CharacterElement(TAIL);
+                return CharacterElement.of(TAIL);
         }
         return elem.getChar() == ' ' ? null : elem;
     }
+
+    /*
+     * Equivalent to step(), but as only wires, tails and sparks can
+     * change, it starts from a copy of this playfield and applies the
+     * rules to just those cells, found through the indexes.
+     */
+    public CircutePlayfield next() {
+        final CircutePlayfield nu = clone();
+        forEachIndexed(ACTIVE, new CellVisitor<CharacterElement>() {
+            public void visit(long x, long y, CharacterElement e) {
+                CharacterElement result = applyRules(IntegerElement.valueOf(x), IntegerElement.valueOf(y), e);
+                if (result != e) {
+                    nu.set(x, y, result);
+                }
+            }
+        });
+        return nu;
+    }
 }
 
 public class CircuteState implements State {
@@ -222,9 +244,7 @@ public class CircuteState implements State {
 
     public List<Error> step(World world) {
         ArrayList<Error> errors = new ArrayList<Error>();
-        CircutePlayfield nu = new CircutePlayfield();
-        playfield.step(nu);
-        playfield = nu;
+        playfield = playfield.next();
         return errors;
     }
 
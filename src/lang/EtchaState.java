@@ -71,10 +71,10 @@ class Etcha extends TextBasedLanguage<EtchaState> {
     }
 }
 
-class EtchaPlayfield extends BasicPlayfield<BitElement> {
+class EtchaPlayfield extends BitPlayfield {
     protected BasicCursor<BitElement> turtle;
     public EtchaPlayfield() {
-        super(BitElement.ZERO);
+        super();
         this.turtle = new BasicCursor<BitElement>(this);
         turtle.setDelta(0, -1);
         clear();
@@ -158,6 +158,12 @@ public class EtchaState implements State {
         return c;
     }
 
+    public long fingerprint() {
+        long h = State.super.fingerprint();
+        h = Zobrist.combine(h, pencounter);
+        return Zobrist.combine(h, pendown ? 1 : 0);
+    }
+
     public List<Error> step(World world) {
         ArrayList<Error> errors = new ArrayList<Error>();
         BasicCursor<BitElement> ip = (BasicCursor<BitElement>)pf.getCursor(0);
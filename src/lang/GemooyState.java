@@ -12,6 +12,8 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 
+import java.nio.ByteBuffer;
+
 import java.awt.Graphics;
 import java.awt.Color;
 
@@ -177,7 +179,30 @@ class GemooyElement implements Element {
     }
 }
 
-class GemooyPlayfield extends BasicPlayfield<GemooyElement> {
+class GemooyCodec implements Codec<GemooyElement> {
+    public char encodeChar(GemooyElement e) {
+        return e.getName().charAt(0);
+    }
+
+    public GemooyElement decodeChar(char c) {
+        GemooyElement.init();
+        return GemooyElement.BLANK.fromChar(c);
+    }
+
+    public int encodedSize(GemooyElement e) {
+        return 1;
+    }
+
+    public void encode(GemooyElement e, ByteBuffer buf) {
+        buf.put((byte)encodeChar(e));
+    }
+
+    public GemooyElement decode(ByteBuffer buf) {
+        return decodeChar((char)buf.get());
+    }
+}
+
+class GemooyPlayfield extends TiledPlayfield<GemooyElement> {
     protected BasicCursor<GemooyElement> ip = null;
     protected BasicCursor<GemooyElement> dp = null;
 
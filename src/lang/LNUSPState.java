@@ -104,11 +104,11 @@ class LNUSP implements Language {
     }
 }
 
-class LNUSPDataSpace extends BasicPlayfield<ByteElement> {
+class LNUSPDataSpace extends BytePlayfield {
     protected BasicCursor<ByteElement> dp = null;
 
     public LNUSPDataSpace() {
-        super(new ByteElement(0));
+        super();
         clear();
     }
 
@@ -136,7 +136,7 @@ class LNUSPDataSpace extends BasicPlayfield<ByteElement> {
     }
 
     public void loadChar(int x, int y, char c) {
-        set(x, y, new ByteElement(c));
+        set(x, y, ByteElement.valueOf(c));
     }
 }
 
@@ -191,6 +191,11 @@ public class LNUSPState implements State {
         return c;
     }
 
+    public long fingerprint() {
+        long h = State.super.fingerprint();
+        return Zobrist.combine(h, savedPosition == null ? 0 : savedPosition.fingerprint());
+    }
+
     public List<Error> step(World world) {
         ArrayList<Error> errors = new ArrayList<Error>();
         BasicCursor<CharacterElement> ip = playfield.getCursor(0);
@@ -228,9 +233,9 @@ public class LNUSPState implements State {
                         needsInput = true;
                         return errors;
                     }
-                    dp.set(new ByteElement(c.getChar()));
+                    dp.set(ByteElement.valueOf(c.getChar()));
 		} else if (ip.getX().intValue() == 23) {
-                    world.output(new CharacterElement(b.toChar()));
+                    world.output(CharacterElement.of(b.toChar()));
 		} else if (ip.getX().intValue() == 40) {
 		    halted = true;
                     return errors;
@@ -129,7 +129,7 @@ class OneLAOI implements Language {
 }
 
 public class OneLAOIState implements State {
-    protected BasicTape<ByteElement> tape;
+    protected ByteTape tape;
     protected CommonPlayfield playfield;
     protected BasicPlayfieldView pfView;
     protected BasicTapeView tapeView;
@@ -139,15 +139,15 @@ public class OneLAOIState implements State {
     private static final OneLAOI language = new OneLAOI();
   
     public OneLAOIState() {
-        tape = new BasicTape<ByteElement>(new ByteElement(0));
+        tape = new ByteTape();
         BasicHead head = tape.getHead(0);
         // In 1l_AOI, TL1 always has a non-zero value, which allows for a conditional turn 
         // to occur when the Memory Pointer is pointing to it.
-        tape.write(IntegerElement.ONE, new ByteElement(1));
+        tape.writeByte(1, 1);
         // Tape head is initially on TL2.
-        head.setPos(new IntegerElement(2));
+        head.setPos(IntegerElement.valueOf(2));
         playfield = new CommonPlayfield();
-        playfield.getCursor(0).setY(new IntegerElement(1));
+        playfield.getCursor(0).setY(IntegerElement.valueOf(1));
         pfView = new BasicPlayfieldView();
         tapeView = new BasicTapeView();
     }
@@ -170,7 +170,7 @@ public class OneLAOIState implements State {
         ArrayList<Error> errors = new ArrayList<Error>();
         BasicCursor<CharacterElement> ip = playfield.getCursor(0);
         BasicHead<ByteElement> h = tape.getHead(0);
-        ByteElement b = h.read();
+        int b = tape.readByte(h.getPosLong());
         char instruction = ip.get().getChar();
 
         if (instruction == '+') {
@@ -180,7 +180,7 @@ public class OneLAOIState implements State {
                 if (h.isAt(1)) {
                     if (!doIO(world)) return errors;
                 } else {
-                    h.write(b.succ());
+                    tape.addAt(h.getPosLong(), 1);
                 }
             } else if (ip.isHeaded(0, 1)) {
                 // Down -- Move MP Right
@@ -193,7 +193,7 @@ public class OneLAOIState implements State {
                 if (h.isAt(1)) {
                     if (!doIO(world)) return errors;
                 } else {
-                    h.write(b.pred());
+                    tape.addAt(h.getPosLong(), -1);
                 }
             } else {
                 // TODO: add error to errors
@@ -229,15 +229,15 @@ public class OneLAOIState implements State {
             rotateLeft = true;
         }
 
-        b = h.read();
+        b = tape.readByte(h.getPosLong());
 
         if (!eu) {
             /*
              * Here's where 1L_AOI and 1L_AOI_EU differ.  In 1L_AOI, deflection is
              * conditional, full stop.
              */
-            rotateRight = rotateRight && (!b.isZero());
-            rotateLeft = rotateLeft && (!b.isZero());
+            rotateRight = rotateRight && (b != 0);
+            rotateLeft = rotateLeft && (b != 0);
             if (rotateLeft && rotateRight) {
                 ip.rotate(180);
             } else if (rotateRight) {
@@ -250,8 +250,8 @@ public class OneLAOIState implements State {
              * In 1L_AOI_EU, deflection to the right(?) is conditional on non-zero,
              * deflection to the left(?) is conditional on zero.
              */
-            rotateRight = rotateRight && b.isZero();
-            rotateLeft = rotateLeft && (!b.isZero());
+            rotateRight = rotateRight && b == 0;
+            rotateLeft = rotateLeft && (b != 0);
             if (rotateLeft && rotateRight) {
                 ip.rotate(180);
             } else if (rotateRight) {
@@ -280,16 +280,16 @@ public class OneLAOIState implements State {
      * the value of TL0."
      */
     private boolean doIO(World world) {
-        ByteElement value = tape.read(0);
-        if (value.isZero()) {
+        int value = tape.readByte(0);
+        if (value == 0) {
             CharacterElement c = world.inputCharacter();
             if (c == null) {
                 needsInput = true;
                 return false;
             }
-            tape.write(0, new ByteElement(c.getChar()));
+            tape.writeByte(0, c.getChar());
         } else {
-            world.output(new CharacterElement(value.toChar()));
+            world.output(CharacterElement.of((char)value));
         }
         return true;
     }
@@ -113,7 +113,7 @@ class OneLa implements Language {
 }
 
 public class OneLaState implements State {
-    protected BasicTape<BitElement> tape;
+    protected BitTape tape;
     protected CommonPlayfield playfield;
     protected BasicPlayfieldView pfView;
     protected BasicTapeView tapeView;
@@ -127,9 +127,9 @@ public class OneLaState implements State {
          * and the next couple cells are called TL1 and TL2. The data pointer starts out pointing to TL2.
          */
         // This tape is unbounded on the left, too; exceeding the left bound is undefined behaviour anyway
-        tape = new BasicTape<BitElement>(BitElement.ZERO);
+        tape = new BitTape();
         BasicHead head = tape.getHead(0);
-        head.setPos(new IntegerElement(2));
+        head.setPos(IntegerElement.valueOf(2));
 
         /*
          * The instruction pointer starts at the upper left corner of the source file moving down, and the
@@ -169,8 +169,7 @@ public class OneLaState implements State {
                  * one cell to the left and then flips the bit at the data pointer.
                  */
                 h.move(-1);
-                BitElement bit = h.read();
-                h.write(bit.invert());
+                tape.invert(h.getPosLong());
                 if (h.isAt(0)) {
                     /*
                      * As in 2L, I/O is memory-mapped. Flipping the bit at TL0 causes
@@ -179,20 +178,23 @@ public class OneLaState implements State {
                      * If TL1 and not TL2, then a 0 bit is output.
                      * If not TL1, then a bit is input and saved in TL2.
                      */
-                    boolean tl1 = tape.read(1).getBoolean();
-                    boolean tl2 = tape.read(2).getBoolean();
+                    boolean tl1 = tape.readBit(1);
+                    boolean tl2 = tape.readBit(2);
                     if (tl1 && tl2) {
-                        world.output(new CharacterElement('1'));
+                        world.output(CharacterElement.of('1'));
                     } else if (tl1 && !tl2) {
-                        world.output(new CharacterElement('0'));
+                        world.output(CharacterElement.of('0'));
                     } else if (!tl1) {
                         CharacterElement c = world.inputCharacter();
                         if (c == null) {
                             needsInput = true;
-                            h.write(bit.invert()); // UNFLIP
+                            // undo the flip and the move, so that this
+                            // instruction can be retried once input arrives
+                            tape.invert(0);
+                            h.move(1);
                             return errors;
                         }
-                        tape.write(2, bit.fromChar(c.getChar()));
+                        tape.writeBit(2, c.getChar() == '1');
                     }
                 }
             } else if (ip.isHeaded(0, -1)) {
@@ -213,8 +215,7 @@ public class OneLaState implements State {
              * current bit is 0 or right if the current bit is 1.
              */
             ip.advance(-1);
-            BitElement bit = h.read();
-            if (bit.getBoolean()) {
+            if (tape.readBit(h.getPosLong())) {
                ip.rotate(90);
             } else {
                ip.rotate(-90);
@@ -122,7 +122,7 @@ class PATHPlayfield extends CommonPlayfield {
 }
 
 public class PATHState implements State {
-    protected BasicTape<ByteElement> tape;
+    protected ByteTape tape;
     protected PATHPlayfield playfield;
     protected BasicPlayfieldView pfView;
     protected BasicTapeView tapeView;
@@ -131,7 +131,7 @@ public class PATHState implements State {
     private static final PATH language = new PATH();
 
     public PATHState() {
-        tape = new BasicTape<ByteElement>(new ByteElement(0));
+        tape = new ByteTape();
         playfield = new PATHPlayfield();
         pfView = new BasicPlayfieldView();
         tapeView = new BasicTapeView();
@@ -154,7 +154,7 @@ public class PATHState implements State {
         ArrayList<Error> errors = new ArrayList<Error>();
         BasicCursor<CharacterElement> ip = playfield.getCursor(0);
         BasicHead<ByteElement> h = tape.getHead(0);
-        ByteElement b = h.read();
+        int b = tape.readByte(h.getPosLong());
         char instruction = ip.get().getChar();
 
         switch (instruction) {
@@ -168,11 +168,11 @@ public class PATHState implements State {
                 break;
             case '+':
                 // + INCR  Increment current memory cell
-                h.write(b.succ());
+                tape.addAt(h.getPosLong(), 1);
                 break;
             case '-':
                 // - DECR  Decrement current memory cell
-                h.write(b.pred());
+                tape.addAt(h.getPosLong(), -1);
                 break;
             case ',':
                 // , - Input an ASCII character from standard input into the current memory cell.
@@ -181,11 +181,11 @@ public class PATHState implements State {
                     needsInput = true;
                     return errors;
                 }
-                h.write(new ByteElement(c.getChar()));
+                tape.writeByte(h.getPosLong(), c.getChar());
                 break;
             case '.':
                 // . - Output an ASCII character from the current memory cell into standard output.
-                world.output(new CharacterElement(b.toChar()));
+                world.output(CharacterElement.of((char)b));
                 break;
             case '\\':
                 // \ LURD  (Reflect as a ray of light would)
@@ -201,25 +201,25 @@ public class PATHState implements State {
                 break;
             case '<':
                 //  < - If the value of the current memory cell is not 0, turn left.
-                if (!b.isZero()) {
+                if (b != 0) {
                     ip.setDelta(-1, 0);
                 }
                 break;
             case '>':
                 //  > - If the value of the current memory cell is not 0, turn right.
-                if (!b.isZero()) {
+                if (b != 0) {
                     ip.setDelta(1, 0);
                 }
                 break;
             case '^':
                 //  ^ - If the value of the current memory cell is not 0, turn up.
-                if (!b.isZero()) {
+                if (b != 0) {
                     ip.setDelta(0, -1);
                 }
                 break;
             case 'v':
                 //  v - If the value of the current memory cell is not 0, turn down.
-                if (!b.isZero()) {
+                if (b != 0) {
                     ip.setDelta(0, 1);
                 }
                 break;
@@ -167,12 +167,12 @@ public class QdeqlState implements State {
                     needsInput = true;
                     return errors;
                 }
-                queue.enqueue(new ByteElement(c.getChar()));
+                queue.enqueue(ByteElement.valueOf(c.getChar()));
                 break;
             case '*':
                 // * OUTPUT Dequeue a byte and write it to stdout
                 b = queue.dequeue();
-                world.output(new CharacterElement(b.toChar()));
+                world.output(CharacterElement.of(b.toChar()));
                 break;
             default:
                 // NOP
@@ -193,7 +193,7 @@ public class SMETANAState implements State {
     private static final SMETANA language = new SMETANA();
 
     public SMETANAState() {
-        tape = new BasicTape<SMETANAInstruction>(null);
+        tape = new ArrayTape<SMETANAInstruction>(null);
         tapeView = new SMETANAProgramView();
     }
     
@@ -168,6 +168,15 @@ class BasicCursorElement<E extends Element> implements Element {
         return false;
     }
 
+    /*
+     * The playfield is left out, so that a clone's call stack hashes
+     * the same as the original's.
+     */
+    public int hashCode() {
+        int h = 31 * x.hashCode() + y.hashCode();
+        return 31 * (31 * h + dx.hashCode()) + dy.hashCode();
+    }
+
     // this makes no sense.  Codecs plz kthx
     public BasicCursorElement<E> fromChar(char c) {
         return null;
@@ -205,7 +214,7 @@ class SNUSPPlayfield extends CommonPlayfield {
 }
 
 public class SNUSPState implements State {
-    protected BasicTape<ByteElement> tape;
+    protected ByteTape tape;
     protected BasicStack<BasicCursorElement<CharacterElement>> callStack;
     protected SNUSPPlayfield playfield;
     protected BasicPlayfieldView pfView;
@@ -217,7 +226,7 @@ public class SNUSPState implements State {
 
     public SNUSPState() {
         playfield = new SNUSPPlayfield();
-        tape = new BasicTape<ByteElement>(new ByteElement(0));
+        tape = new ByteTape();
         callStack = new BasicStack<BasicCursorElement<CharacterElement>>(new BasicCursorElement<CharacterElement>(new BasicCursor<CharacterElement>(playfield)));
         pfView = new BasicPlayfieldView();
         tapeView = new BasicTapeView();
@@ -242,7 +251,7 @@ public class SNUSPState implements State {
         ArrayList<Error> errors = new ArrayList<Error>();
         BasicCursor<CharacterElement> ip = playfield.getCursor(0);
         BasicHead<ByteElement> h = tape.getHead(0);
-        ByteElement b = h.read();
+        int b = tape.readByte(h.getPosLong());
         char instruction = ip.get().getChar();
 
         switch (instruction) {
@@ -256,11 +265,11 @@ public class SNUSPState implements State {
                 break;
             case '+':
                 // + INCR  Increment current memory cell
-                h.write(b.succ());
+                tape.addAt(h.getPosLong(), 1);
                 break;
             case '-':
                 // - DECR  Decrement current memory cell
-                h.write(b.pred());
+                tape.addAt(h.getPosLong(), -1);
                 break;
             case ',':
                 // , READ  Read a byte into current memory cell
@@ -269,11 +278,11 @@ public class SNUSPState implements State {
                     needsInput = true;
                     return errors;
                 }
-                h.write(new ByteElement(c.getChar()));
+                tape.writeByte(h.getPosLong(), c.getChar());
                 break;
             case '.':
                 // . WRITE Write a byte from current memory cell
-                world.output(new CharacterElement(b.toChar()));
+                world.output(CharacterElement.of((char)b));
                 break;
             case '\\':
                 // \ LURD  (Reflect as a ray of light would)
@@ -289,7 +298,7 @@ public class SNUSPState implements State {
                 break;
             case '?':
                 // ? SKIPZ If the current memory cell is zero, do a SKIP
-                if (b.isZero()) {
+                if (b == 0) {
                     ip.advance();
                 }
                 break;
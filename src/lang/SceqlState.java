@@ -176,12 +176,12 @@ public class SceqlState implements State {
                     needsInput = true;
                     return errors;
                 }
-                queue.enqueue(new ByteElement(c.getChar()));
+                queue.enqueue(ByteElement.valueOf(c.getChar()));
                 break;
             case '*':
                 // * OUTPUT Dequeue a byte, write it to stdout, and enqueue it again
                 b = queue.dequeue();
-                world.output(new CharacterElement(b.toChar()));
+                world.output(CharacterElement.of(b.toChar()));
                 queue.enqueue(b);
                 break;
             default:
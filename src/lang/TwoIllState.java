@@ -134,7 +134,7 @@ class TwoIllPlayfield extends CommonPlayfield {
 }
 
 public class TwoIllState implements State {
-    protected BasicTape<BitElement> tape;
+    protected BitTape tape;
     protected TwoIllPlayfield playfield;
     protected BasicPlayfieldView pfView;
     protected BasicTapeView tapeView;
@@ -145,7 +145,7 @@ public class TwoIllState implements State {
     public TwoIllState() {
         // The memory is a tape (similar to Brainfuck) infinite on both directions and starts all zero,
         // each cell can be only value 0 or 1, no other values are possible.
-        tape = new BasicTape<BitElement>(BitElement.ZERO);
+        tape = new BitTape();
         playfield = new TwoIllPlayfield();
         pfView = new BasicPlayfieldView();
         tapeView = new BasicTapeView();
@@ -168,17 +168,17 @@ public class TwoIllState implements State {
         ArrayList<Error> errors = new ArrayList<Error>();
         BasicCursor<CharacterElement> ip = playfield.getCursor(0);
         BasicHead<BitElement> h = tape.getHead(0);
-        BitElement bit = h.read();
+        boolean bit = tape.readBit(h.getPosLong());
         char instruction = ip.get().getChar();
 
         if (instruction == '@') {
             // @ turns program pointer clockwise if value at pointer is 1, or counter-clockwise if is 0.
-            ip.rotate(bit.getBoolean() ? 90 : -90);
+            ip.rotate(bit ? 90 : -90);
         } else if (instruction == '#') {
             // # has different effects depending on direction of program pointer:
             if (ip.isHeaded(0, -1)) {
                 // North = output bit at tape pointer, skip 2 program cells
-                world.output(bit);
+                world.output(BitElement.create(bit));
                 ip.advance(2);
             } else if (ip.isHeaded(0, 1)) {
                 // South = input bit, store at tape pointer, skip 2 program cells
@@ -187,12 +187,11 @@ public class TwoIllState implements State {
                     needsInput = true;
                     return errors;
                 }
-                bit = bit.fromChar(c.getChar());
-                h.write(bit);
+                tape.writeBit(h.getPosLong(), c.getChar() == '1');
                 ip.advance(2);
             } else if (ip.isHeaded(1, 0)) {
                 // East = toggle bit at tape pointer and then move tape pointer 1 space forwards, skip 2 program cells 
-                h.write(bit.invert());
+                tape.invert(h.getPosLong());
                 h.move(1);
                 ip.advance(2);
             } else if (ip.isHeaded(-1, 0)) {
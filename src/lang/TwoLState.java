@@ -158,7 +158,7 @@ class TwoL implements Language {
 }
 
 public class TwoLState implements State {
-    protected BasicTape<ByteElement> tape;
+    protected ByteTape tape;
     protected CommonPlayfield playfield;
     protected BasicPlayfieldView pfView;
     protected BasicTapeView tapeView;
@@ -169,10 +169,10 @@ public class TwoLState implements State {
     private static final TwoL language = new TwoL();
   
     public TwoLState() {
-        tape = new BasicTape<ByteElement>(new ByteElement(0));
+        tape = new ByteTape();
         BasicHead head = tape.getHead(0);
         // Tape head is initially on TL2.
-        head.setPos(new IntegerElement(2));
+        head.setPos(IntegerElement.valueOf(2));
         playfield = new CommonPlayfield();
         playfield.getCursor(0).setDelta(0, 1); // initially going down
         pfView = new BasicPlayfieldView();
@@ -198,7 +198,7 @@ public class TwoLState implements State {
         ArrayList<Error> errors = new ArrayList<Error>();
         BasicCursor<CharacterElement> ip = playfield.getCursor(0);
         BasicHead<ByteElement> h = tape.getHead(0);
-        ByteElement b = h.read();
+        int b = tape.readByte(h.getPosLong());
         char instruction = ip.get().getChar();
 
         if (instruction == '*') {
@@ -218,21 +218,21 @@ public class TwoLState implements State {
                 // Right: Increment the value at the data pointer (+ in Brainfuck) 
                 if (h.isAt(1)) {
                     if (mutableTL1) {
-                        h.write(b.succ());
+                        tape.addAt(h.getPosLong(), 1);
                     }
                     if (!doIO(world)) return errors;
                 } else {
-                    h.write(b.succ());
+                    tape.addAt(h.getPosLong(), 1);
                 }
             } else if (ip.isHeaded(-1, 0)) {
                 // Left: Decrement the value at the data pointer (- in Brainfuck) 
                 if (h.isAt(1)) {
                     if (mutableTL1) {
-                        h.write(b.pred());
+                        tape.addAt(h.getPosLong(), -1);
                     }
                     if (!doIO(world)) return errors;
                 } else {
-                    h.write(b.pred());
+                    tape.addAt(h.getPosLong(), -1);
                 }
             } else {
                 // TODO: add error to errors
@@ -244,8 +244,8 @@ public class TwoLState implements State {
         ip.advance(-1);
         int turns = 0;
         while (lookahead == '+' && turns < 4) {
-            b = h.read();
-            if (!b.isZero()) {
+            b = tape.readByte(h.getPosLong());
+            if (b != 0) {
                ip.rotate(90);
             } else {
                ip.rotate(-90);
@@ -275,16 +275,16 @@ public class TwoLState implements State {
      * the value of TL0.
      */
     private boolean doIO(World world) {
-        ByteElement value = tape.read(IntegerElement.ZERO);
-        if (value.isZero()) {
+        int value = tape.readByte(0);
+        if (value == 0) {
             CharacterElement c = world.inputCharacter();
             if (c == null) {
                 needsInput = true;
                 return false;
             }
-            tape.write(IntegerElement.ZERO, new ByteElement(c.getChar()));
+            tape.writeByte(0, c.getChar());
         } else {
-            world.output(new CharacterElement(value.toChar()));
+            world.output(CharacterElement.of((char)value));
         }
         return true;
     }
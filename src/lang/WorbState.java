@@ -21,6 +21,9 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.Random;
 import java.util.Iterator;
+import java.util.Arrays;
+
+import java.nio.ByteBuffer;
 
 
 class Worb implements Language {
@@ -237,19 +240,57 @@ class Bobule implements Element {
         return e instanceof Bobule; // a bobule is a bobule is a bobule!
     }
 
+    public int hashCode() {
+        return '.';
+    }
+
     public Bobule fromChar(char c) {
         return new Bobule();
     }
 }
 
-class WorbPlayfield extends BasicPlayfield<Element> {
+/*
+ * A bobule's character form is always '.' (as in the program text);
+ * its binary form also keeps its pressure.
+ */
+class BobuleCodec implements Codec<Bobule> {
+    public char encodeChar(Bobule e) {
+        return '.';
+    }
+
+    public Bobule decodeChar(char c) {
+        return new Bobule();
+    }
+
+    public int encodedSize(Bobule e) {
+        return 4;
+    }
+
+    public void encode(Bobule e, ByteBuffer buf) {
+        buf.putInt(e.pressure);
+    }
+
+    public Bobule decode(ByteBuffer buf) {
+        Bobule b = new Bobule();
+        b.pressure = buf.getInt();
+        return b;
+    }
+}
+
+class WorbPlayfield extends TiledPlayfield<Element> {
     protected HashMap<Position, Bobule> bobuleMap;
+    private long bobuleHash = 0; // XOR of the keys of all bobules
     private Random rand;
 
+    private static final CharacterElement SOURCE = CharacterElement.of('+');
+    private static final CharacterElement SINK = CharacterElement.of('-');
+
     public WorbPlayfield() {
-        super(new CharacterElement(' '));
+        super(CharacterElement.of(' '));
         bobuleMap = new HashMap<Position, Bobule>();
         rand = new Random();
+        addIndex(SOURCE);
+        addIndex(SINK);
     }
 
     public WorbPlayfield clone() {
@@ -258,18 +299,64 @@ class WorbPlayfield extends BasicPlayfield<Element> {
         c.bobuleMap = new HashMap<Position, Bobule>(
           (Map<Position, Bobule>)this.bobuleMap
         );
+        c.bobuleHash = this.bobuleHash;
         return c;
     }
 
+    /*
+     * The bobules are not in the backing store, so mix them in here.
+     * Pressure is not counted, any more than it is by Bobule.equals().
+     */
+    public long fingerprint() {
+        return Zobrist.combine(super.fingerprint(), bobuleHash);
+    }
+
+    private void putBobule(Position p, Bobule b) {
+        if (bobuleMap.put(p, b) == null) {
+            bobuleHash ^= Zobrist.cell(p.getX(), p.getY(), b);
+        }
+    }
+
+    private void removeBobule(Position p) {
+        Bobule b = bobuleMap.remove(p);
+        if (b != null) {
+            bobuleHash ^= Zobrist.cell(p.getX(), p.getY(), b);
+        }
+    }
+
     public Element get(IntegerElement x, IntegerElement y) {
         Bobule bobule = bobuleMap.get(new Position(x, y));
         return (bobule == null) ? getBackground(x, y) : bobule;
     }
 
+    public Element get(long x, long y) {
+        Bobule bobule = bobuleMap.get(new Position(x, y));
+        return (bobule == null) ? getBackground(x, y) : bobule;
+    }
+
+    /*
+     * Overrides version in BasicPlayfield, so that bobules are visited too.
+     */
+    public void forEachCell(long minX, long minY, long maxX, long maxY, CellVisitor<Element> v) {
+        Element def = getDefault();
+        for (long y = minY; y <= maxY; y++) {
+            for (long x = minX; x <= maxX; x++) {
+                Element e = get(x, y);
+                if (!e.equals(def)) {
+                    v.visit(x, y, e);
+                }
+            }
+        }
+    }
+
     public CharacterElement getBackground(IntegerElement x, IntegerElement y) {
         return (CharacterElement)super.get(x, y);
     }
 
+    public CharacterElement getBackground(long x, long y) {
+        return (CharacterElement)super.get(x, y);
+    }
+
     public void step() {
         Set<Position> bobulePositions = new HashSet<Position>(bobuleMap.keySet());
         Iterator<Position> it = bobulePositions.iterator();
@@ -279,8 +366,8 @@ class WorbPlayfield extends BasicPlayfield<Element> {
             Bobule b = bobuleMap.get(p);
 
             b.pressure++;
-            IntegerElement new_x = p.getX().add(new IntegerElement(rand.nextInt(3) - 1));
-            IntegerElement new_y = p.getY().add(new IntegerElement(rand.nextInt(3) - 1));
+            IntegerElement new_x = p.getX().add(IntegerElement.valueOf(rand.nextInt(3) - 1));
+            IntegerElement new_y = p.getY().add(IntegerElement.valueOf(rand.nextInt(3) - 1));
             Element e = get(new_x, new_y);
             if (e instanceof Bobule) {
                 continue;
@@ -300,37 +387,37 @@ class WorbPlayfield extends BasicPlayfield<Element> {
             } else {
                 // No other possibilities
             }
-            bobuleMap.remove(p);
+            removeBobule(p);
             b.pressure = 1;
-            bobuleMap.put(new Position(new_x, new_y), b);
+            putBobule(new Position(new_x, new_y), b);
         }
 
-        Iterator<Map.Entry<Position, Element>> cit = store.entrySet().iterator();
-        while (cit.hasNext()) {
-            Map.Entry<Position, Element> entry = cit.next();
-            Position p = entry.getKey();
-            char c = ((CharacterElement)entry.getValue()).getChar();
-          
-            if (c == '+') {
-                Bobule b = bobuleMap.get(p);
-                if (b == null && rand.nextInt(10) == 0) {
-                    b = new Bobule();
-                    bobuleMap.put(p, b);
-                }
-            } else if (c == '-') {
-                Bobule b = bobuleMap.get(p);
-                if (b != null && rand.nextInt(10) == 0) {
-                    bobuleMap.remove(p);
+        forEachIndexed(Arrays.asList(SOURCE, SINK), new CellVisitor<Element>() {
+            public void visit(long x, long y, Element e) {
+                Position p = new Position(x, y);
+                char c = ((CharacterElement)e).getChar();
+
+                if (c == '+') {
+                    Bobule b = bobuleMap.get(p);
+                    if (b == null && rand.nextInt(10) == 0) {
+                        b = new Bobule();
+                        putBobule(p, b);
+                    }
+                } else if (c == '-') {
+                    Bobule b = bobuleMap.get(p);
+                    if (b != null && rand.nextInt(10) == 0) {
+                        removeBobule(p);
+                    }
                 }
             }
-        }
+        });
     }
 
     public void loadChar(int x, int y, char c) {
         if (c == '.') {
-            bobuleMap.put(new Position(x, y), new Bobule());
+            putBobule(new Position(x, y), new Bobule());
         } else {
-            set(x, y, new CharacterElement(c));
+            set(x, y, CharacterElement.of(c));
         }
     }
 
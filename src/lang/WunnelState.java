@@ -12,6 +12,8 @@ import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
 
+import java.nio.ByteBuffer;
+
 import java.awt.Graphics;
 import java.awt.Color;
 
@@ -145,8 +147,50 @@ class Operation implements Element {
     }
 }
 
+/*
+ * Operations have no natural one-character form, so both encodings
+ * just use the operation's index in a fixed list (as a digit or letter,
+ * for the character encoding.)
+ */
+class OperationCodec implements Codec<Operation> {
+    private static final Operation[] all = {
+        Operation.ROT, Operation.NOP, Operation.SHU, Operation.RIG,
+        Operation.LEF, Operation.INP, Operation.OUT, Operation.NEG,
+        Operation.PLU, Operation.BLA, Operation.END
+    };
+
+    private static int indexOf(Operation e) {
+        for (int i = 0; i < all.length; i++) {
+            if (all[i] == e) return i;
+        }
+        throw new IllegalArgumentException("unknown operation " + e.getName());
+    }
+
+    public char encodeChar(Operation e) {
+        return Character.forDigit(indexOf(e), Character.MAX_RADIX);
+    }
+
+    public Operation decodeChar(char c) {
+        int i = Character.digit(c, Character.MAX_RADIX);
+        return (i >= 0 && i < all.length) ? all[i] : Operation.NOP;
+    }
+
+    public int encodedSize(Operation e) {
+        return 1;
+    }
+
+    public void encode(Operation e, ByteBuffer buf) {
+        buf.put((byte)indexOf(e));
+    }
+
+    public Operation decode(ByteBuffer buf) {
+        int i = buf.get();
+        return (i >= 0 && i < all.length) ? all[i] : Operation.NOP;
+    }
+}
+
 class OperationTable implements Playfield<Operation> {
-    private static IntegerElement FIVE = new IntegerElement(5);
+    private static IntegerElement FIVE = IntegerElement.valueOf(5);
     private WrapCursor<Operation> cursor;
 
     public OperationTable() {
@@ -212,7 +256,7 @@ class OpTableView extends BasicPlayfieldView {
 }
 
 public class WunnelState implements State {
-    static private final IntegerElement MINUS_ONE = new IntegerElement(-1);
+    static private final IntegerElement MINUS_ONE = IntegerElement.valueOf(-1);
     protected BasicTape<IntegerElement> tape; // XXX for now
     protected CommonPlayfield playfield;
     protected OperationTable opTable;
@@ -225,7 +269,7 @@ public class WunnelState implements State {
   
     public WunnelState() {
         // The tape cells can actually only hold -1, 0, 1
-        tape = new BasicTape<IntegerElement>(new IntegerElement(0));
+        tape = new ArrayTape<IntegerElement>(IntegerElement.valueOf(0));
 
         /*
          * The instruction pointer starts at the upper left corner of the source file moving down.
@@ -299,9 +343,9 @@ public class WunnelState implements State {
             } else if (k == Operation.OUT) {
                 IntegerElement i = h.read();
                 if (i.isZero()) {
-                    world.output(new CharacterElement('0'));
+                    world.output(CharacterElement.of('0'));
                 } else {
-                    world.output(new CharacterElement('1'));
+                    world.output(CharacterElement.of('1'));
                 }
             } else if (k == Operation.INP) {
                 CharacterElement c = world.inputCharacter();
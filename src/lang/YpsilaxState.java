@@ -21,6 +21,8 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.Random;
 import java.util.Iterator;
+import java.util.Collections;
+import java.util.Comparator;
 
 
 class Ypsilax implements Language {
@@ -183,7 +185,7 @@ class Ypsilax implements Language {
 class Rule extends OverlayPlayfield<CharacterElement> {
     private IntegerElement width, height;
     private CharacterElement wildcard;
-    private static final IntegerElement TWO = new IntegerElement(2);
+    private static final IntegerElement TWO = IntegerElement.valueOf(2);
 
     public Rule(Playfield<CharacterElement> p, IntegerElement x, IntegerElement y,
                 IntegerElement width, CharacterElement wildcard) {
@@ -273,26 +275,9 @@ class PlayfieldMatcher<E extends Element> {
             // exceeds the right or bottom edge, so, no
             return false;
         }
-        IntegerElement cx, cy, dx, dy;
-        for (cx = x, dx = needle.getMinX();
-             dx.compareTo(needle.getMaxX()) <= 0;
-             cx = cx.succ(), dx = dx.succ()) {
-            for (cy = y, dy = needle.getMinY();
-                 dy.compareTo(needle.getMinY()) <= 0;
-                 cy = cy.succ(), dy = dy.succ()) {
-                E soughtElem = needle.get(dx, dy);
-                E foundElem = haystack.get(cx, cy);
-                //System.out.printf("sought (%s,%s): '%s', found (%s,%s): '%s'\n",
-                //     dx, dy, soughtElem.getName(),
-                //     cx, cy, foundElem.getName());
-                if (m.match(soughtElem, foundElem)) {
-                    // add something to the result-list
-                } else {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return haystack.regionMatches(x.longValue(), y.longValue(), needle,
+                                      needle.getMinX().longValue(), needle.getMinY().longValue(),
+                                      width.longValue(), height.longValue(), m);
     }
 
     public Set<Position> getAllMatches(Playfield<E> haystack, Playfield<E> needle, Matcher<E,E> matcher) {
@@ -324,9 +309,12 @@ class PlayfieldMatcher<E extends Element> {
     }
 }
 
-class YpsilaxPlayfield extends BasicPlayfield<CharacterElement> {
+class YpsilaxPlayfield extends TiledPlayfield<CharacterElement> {
+    private static final CharacterElement OPEN = CharacterElement.of('(');
+
     public YpsilaxPlayfield() {
-        super(new CharacterElement(' '));
+        super(CharacterElement.of(' '));
+        addIndex(OPEN);
     }
 
     public YpsilaxPlayfield clone() {
@@ -340,30 +328,38 @@ class YpsilaxPlayfield extends BasicPlayfield<CharacterElement> {
     }
 
     public List<Rule> findAllRules() {
-        IntegerElement x, y;
-        ArrayList<Rule> rules = new ArrayList<Rule>();
-
-        for (x = (IntegerElement)getMinX(); x.compareTo(getMaxX()) <= 0; x = x.succ()) {
-            for (y = (IntegerElement)getMinY(); y.compareTo(getMaxY()) <= 0; y = y.succ()) {
-                boolean escaped = (!y.isZero() && get(x, y.pred()).getChar() != ' ');
-                if (escaped) continue;
-                if (get(x, y).getChar() == '(') {
-                    //System.out.println("Found a rule start at " + x + ", " + y);
-                    IntegerElement x2 = x;
-                    CharacterElement g = get(x2, y);
-                    while (g.getChar() != ')' && x2.compareTo(getMaxX()) <= 0) {
-                        x2 = x2.succ();
-                        g = get(x2, y);
-                    }
-                    if (g.getChar() != ')') continue;
-                    //System.out.println("Found a rule from " + x + "," + y + " to " + x2);
-                    CharacterElement w = get(x2.pred(), y);
-                    if (w.getChar() == ' ') w = null;
-                    Rule r = new Rule(this, x.succ(), y.succ(), (x2.subtract(x)).pred(), w);
-                    rules.add(r);
+        final long maxX = getMaxX().longValue();
+        final ArrayList<Rule> rules = new ArrayList<Rule>();
+
+        forEachIndexed(OPEN, new CellVisitor<CharacterElement>() {
+            public void visit(long x, long y, CharacterElement e) {
+                boolean escaped = (y != 0 && get(x, y - 1).getChar() != ' ');
+                if (escaped) return;
+                //System.out.println("Found a rule start at " + x + ", " + y);
+                long x2 = x;
+                CharacterElement g = e;
+                while (g.getChar() != ')' && x2 <= maxX) {
+                    x2++;
+                    g = get(x2, y);
                 }
+                if (g.getChar() != ')') return;
+                //System.out.println("Found a rule from " + x + "," + y + " to " + x2);
+                CharacterElement w = get(x2 - 1, y);
+                if (w.getChar() == ' ') w = null;
+                Rule r = new Rule(YpsilaxPlayfield.this, IntegerElement.valueOf(x + 1), IntegerElement.valueOf(y + 1),
+                                  IntegerElement.valueOf(x2 - x - 1), w);
+                rules.add(r);
             }
-        }
+        });
+
+        // A rule is picked from this list at random, so keep it in the
+        // order rules have always been listed in: by column, then by row.
+        Collections.sort(rules, new Comparator<Rule>() {
+            public int compare(Rule a, Rule b) {
+                int c = a.getOffsetX().compareTo(b.getOffsetX());
+                return c != 0 ? c : a.getOffsetY().compareTo(b.getOffsetY());
+            }
+        });
 
         return rules;
     }
@@ -391,19 +387,23 @@ class YpsilaxPlayfield extends BasicPlayfield<CharacterElement> {
      * We assume a match was made at the given position.
      */
     public void applyRule(Rule r, Position p) {
-        IntegerElement i, j;
-
+        /* Note that r.getHeight() == width/2 ... */
+        long h = r.getHeight().longValue();
+        long x = p.getX().longValue();
+        long y = p.getY().longValue();
         CharacterElement wildcard = r.getWildcard();
         //System.out.printf("applying at %s: %s", p.toString(), r.dump());
-        /* Note that r.getHeight() == width/2 ... */
-        for(i = IntegerElement.ZERO; i.compareTo(r.getHeight()) < 0; i = i.succ()) {
-            for(j = IntegerElement.ZERO; j.compareTo(r.getHeight()) < 0; j = j.succ()) {
-                CharacterElement replacement = r.get(i.add(r.getHeight()), j);
-                IntegerElement destX = p.getX().add(i);
-                IntegerElement destY = p.getY().add(j);
-                //System.out.printf("(%s,%s): [%s] '%s' -> (%s,%s)\n", i, j, wildcard, replacement.getChar(), destX, destY);
+        /*
+         * The rule is a view onto this playfield, so if the match overlaps
+         * the rule's replacement half, a write may change a cell read
+         * later.  Not blit(), then: this keeps the column-by-column order
+         * it has always had.
+         */
+        for (long i = 0; i < h; i++) {
+            for (long j = 0; j < h; j++) {
+                CharacterElement replacement = r.get(i + h, j);
                 if (wildcard == null || wildcard.getChar() != replacement.getChar()) {
-                    set(destX, destY, replacement);
+                    set(x + i, y + j, replacement);
                 }
             }
         }